@@ -15,18 +15,24 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.beans.factory.annotation.Value;
 
+import com.rensights.admin.model.ActiveUserSketch;
+import com.rensights.admin.model.ActivityDailyCounter;
 import com.rensights.admin.model.ActivityEvent;
 import com.rensights.admin.model.AdminUser;
 import com.rensights.admin.model.AnalysisRequest;
 import com.rensights.admin.model.Article;
 import com.rensights.admin.model.AppSetting;
+import com.rensights.admin.model.DashboardDailyRollup;
 import com.rensights.admin.model.Device;
+import com.rensights.admin.model.ExportJob;
 import com.rensights.admin.model.Language;
 import com.rensights.admin.model.LoginEvent;
+import com.rensights.admin.model.PageViewMonthlySummary;
 import com.rensights.admin.model.Subscription;
 import com.rensights.admin.model.Translation;
 import com.rensights.admin.model.LandingPageContent;
 import com.rensights.admin.model.User;
+import com.rensights.admin.model.UserLoginStats;
 import com.rensights.admin.model.Deal;
 import com.rensights.admin.model.DealTranslation;
 import com.rensights.admin.model.ReportDocument;
@@ -48,6 +54,14 @@ public class AdminDataSourceConfig {
     @Value("${spring.profiles.active:}")
     private String activeProfile;
 
+    // Write-path batching: Hibernate groups INSERT/UPDATEs into JDBC batches, and
+    // PgJDBC rewrites each insert batch into multi-row INSERTs.
+    @Value("${persistence.batching.enabled:true}")
+    private boolean batchingEnabled;
+
+    @Value("${persistence.batching.batch-size:50}")
+    private int batchSize;
+
     @Primary
     @Bean(name = "adminDataSourceProperties")
     @ConfigurationProperties("spring.datasource")
@@ -58,9 +72,13 @@ public class AdminDataSourceConfig {
     @Primary
     @Bean(name = "adminDataSource")
     public DataSource adminDataSource(@Qualifier("adminDataSourceProperties") DataSourceProperties properties) {
-        return properties.initializeDataSourceBuilder()
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
             .type(HikariDataSource.class)
             .build();
+        if (batchingEnabled) {
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        return dataSource;
     }
 
     @Primary
@@ -75,10 +93,17 @@ public class AdminDataSourceConfig {
         boolean isDev = activeProfile != null && activeProfile.contains("dev");
         properties.put("hibernate.format_sql", isDev ? "true" : "false");
         properties.put("hibernate.show_sql", isDev ? "true" : "false");
+
+        if (batchingEnabled) {
+            properties.put("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+            properties.put("hibernate.order_inserts", "true");
+            properties.put("hibernate.order_updates", "true");
+            properties.put("hibernate.jdbc.batch_versioned_data", "true");
+        }
         
         return builder
             .dataSource(dataSource)
-            .packages(AdminUser.class, User.class, Device.class, Subscription.class, AnalysisRequest.class, Language.class, Translation.class, LandingPageContent.class, Deal.class, DealTranslation.class, Article.class, AppSetting.class, ReportSection.class, ReportDocument.class, LoginEvent.class, ActivityEvent.class)
+            .packages(AdminUser.class, User.class, Device.class, Subscription.class, AnalysisRequest.class, Language.class, Translation.class, LandingPageContent.class, Deal.class, DealTranslation.class, Article.class, AppSetting.class, ReportSection.class, ReportDocument.class, LoginEvent.class, ActivityEvent.class, DashboardDailyRollup.class, ExportJob.class, ActiveUserSketch.class, ActivityDailyCounter.class, PageViewMonthlySummary.class, UserLoginStats.class)
             .persistenceUnit("admin")
             .properties(properties)
             .build();
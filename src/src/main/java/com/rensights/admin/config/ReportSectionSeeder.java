@@ -7,9 +7,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -87,6 +90,7 @@ public class ReportSectionSeeder implements ApplicationRunner {
     );
 
     @Override
+    @Transactional
     public void run(ApplicationArguments args) {
         List<String> languageCodes = new ArrayList<>();
         languageRepository.findByEnabledTrueOrderByNameAsc()
@@ -96,10 +100,16 @@ public class ReportSectionSeeder implements ApplicationRunner {
             languageCodes.add("en");
         }
 
+        // One read for every language, then one batched saveAll for whatever is missing
+        Set<String> existing = reportSectionRepository.findByLanguageCodeIn(languageCodes).stream()
+            .map(section -> section.getSectionKey() + "::" + section.getLanguageCode())
+            .collect(Collectors.toSet());
+
+        List<ReportSection> missing = new ArrayList<>();
         for (String languageCode : languageCodes) {
             for (DefaultSection section : DEFAULTS) {
-                reportSectionRepository.findBySectionKeyAndLanguageCode(section.key(), languageCode)
-                    .orElseGet(() -> reportSectionRepository.save(ReportSection.builder()
+                if (!existing.contains(section.key() + "::" + languageCode)) {
+                    missing.add(ReportSection.builder()
                         .sectionKey(section.key())
                         .title(section.title())
                         .navTitle(section.navTitle())
@@ -108,8 +118,13 @@ public class ReportSectionSeeder implements ApplicationRunner {
                         .displayOrder(section.displayOrder())
                         .languageCode(languageCode)
                         .isActive(true)
-                        .build()));
+                        .build());
+                }
             }
         }
+
+        if (!missing.isEmpty()) {
+            reportSectionRepository.saveAll(missing);
+        }
     }
 }
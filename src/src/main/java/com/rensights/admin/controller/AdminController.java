@@ -1,7 +1,10 @@
 package com.rensights.admin.controller;
 
 import com.rensights.admin.dto.*;
+import com.rensights.admin.model.Deal;
 import com.rensights.admin.service.AdminService;
+import com.rensights.admin.service.DashboardStatsCacheService;
+import com.rensights.admin.service.DealImportService;
 import com.rensights.admin.service.DealService;
 import com.rensights.admin.service.TestDataService;
 import org.springframework.data.domain.Page;
@@ -9,14 +12,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -31,9 +37,15 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
     
+    @Autowired
+    private DashboardStatsCacheService dashboardStatsCacheService;
+    
     @Autowired
     private DealService dealService;
     
+    @Autowired
+    private DealImportService dealImportService;
+    
     @Autowired
     private TestDataService testDataService;
 
@@ -46,10 +58,20 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "exact") String countStrategy,
             Authentication authentication) {
         try {
-            Page<UserDTO> users = adminService.getAllUsers(page, size, sortBy, sortDir);
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(adminService.getUsersByCursor(cursor, size, sortBy, sortDir, includeTotal));
+            }
+            Page<UserDTO> users = adminService.getAllUsers(page, size, sortBy, sortDir,
+                CountStrategy.from(countStrategy));
             return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching users: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -109,10 +131,18 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
         try {
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(adminService.getSubscriptionsByCursor(cursor, size, sortBy, sortDir, includeTotal));
+            }
             Page<SubscriptionDTO> subscriptions = adminService.getAllSubscriptions(page, size, sortBy, sortDir);
             return ResponseEntity.ok(subscriptions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching subscriptions: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -144,7 +174,7 @@ public class AdminController {
     @GetMapping("/stats")
     public ResponseEntity<?> getDashboardStats(Authentication authentication) {
         try {
-            DashboardStatsDTO stats = adminService.getDashboardStats();
+            DashboardStatsDTO stats = dashboardStatsCacheService.getDashboardStats();
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             logger.error("Error fetching stats: {}", e.getMessage(), e);
@@ -201,10 +231,18 @@ public class AdminController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
         try {
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(adminService.getAnalysisRequestsByCursor(cursor, size, sortBy, sortDir, includeTotal));
+            }
             Page<AnalysisRequestDTO> requests = adminService.getAllAnalysisRequests(page, size, sortBy, sortDir);
             return ResponseEntity.ok(requests);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching analysis requests: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -257,10 +295,19 @@ public class AdminController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "exact") String countStrategy,
             Authentication authentication) {
         try {
-            Page<DealDTO> deals = dealService.getPendingDeals(page, size, city);
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(dealService.getPendingDealsByCursor(cursor, size, city, includeTotal));
+            }
+            Page<DealSummaryDTO> deals = dealService.getPendingDeals(page, size, city, CountStrategy.from(countStrategy));
             return ResponseEntity.ok(deals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching pending deals: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -271,10 +318,19 @@ public class AdminController {
     public ResponseEntity<?> getTodayPendingDeals(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "exact") String countStrategy,
             Authentication authentication) {
         try {
-            Page<DealDTO> deals = dealService.getTodayPendingDeals(page, size);
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(dealService.getTodayPendingDealsByCursor(cursor, size, includeTotal));
+            }
+            Page<DealSummaryDTO> deals = dealService.getTodayPendingDeals(page, size, CountStrategy.from(countStrategy));
             return ResponseEntity.ok(deals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching today's pending deals: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -324,27 +380,129 @@ public class AdminController {
     @PostMapping("/deals/batch-approve")
     public ResponseEntity<?> approveDeals(
             @RequestBody Map<String, Object> request,
+            @RequestParam(defaultValue = "false") boolean includeDeals,
             Authentication authentication) {
         try {
-            @SuppressWarnings("unchecked")
-            List<String> dealIds = (List<String>) request.get("dealIds");
-            if (dealIds == null || dealIds.isEmpty()) {
+            List<UUID> uuids = parseDealIds(request);
+            if (uuids.isEmpty()) {
                 return ResponseEntity.status(400).body(Map.of("error", "dealIds is required"));
             }
             
-            List<UUID> uuids = dealIds.stream()
-                    .map(UUID::fromString)
-                    .collect(Collectors.toList());
-            
             UUID adminId = UUID.fromString(authentication.getName());
-            List<DealDTO> approvedDeals = dealService.approveDeals(uuids, adminId);
-            return ResponseEntity.ok(Map.of("approvedCount", approvedDeals.size(), "deals", approvedDeals));
+            if (includeDeals) {
+                // Full DTOs are opt-in: they re-read every approved deal
+                List<DealDTO> approvedDeals = dealService.approveDeals(uuids, adminId);
+                return ResponseEntity.ok(Map.of("approvedCount", approvedDeals.size(), "deals", approvedDeals));
+            }
+            List<DealStatusDTO> approved = dealService.approveDealsLean(uuids, adminId);
+            return ResponseEntity.ok(Map.of("approvedCount", approved.size(), "approved", approved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error batch approving deals: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
     
+    @PostMapping("/deals/pending/today/approve")
+    public ResponseEntity<?> approveTodayPendingDeals(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String buildingStatus,
+            Authentication authentication) {
+        try {
+            Deal.BuildingStatus status = buildingStatus != null && !buildingStatus.isEmpty()
+                    ? Deal.BuildingStatus.valueOf(buildingStatus.toUpperCase())
+                    : null;
+            UUID adminId = UUID.fromString(authentication.getName());
+            int approved = dealService.approveTodayPendingDeals(city, status, adminId);
+            return ResponseEntity.ok(Map.of("approvedCount", approved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error approving today's pending deals: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/deals/batch-reject")
+    public ResponseEntity<?> rejectDeals(@RequestBody Map<String, Object> request) {
+        try {
+            List<UUID> uuids = parseDealIds(request);
+            if (uuids.isEmpty()) {
+                return ResponseEntity.status(400).body(Map.of("error", "dealIds is required"));
+            }
+            int rejected = dealService.rejectDeals(uuids);
+            return ResponseEntity.ok(Map.of("requestedCount", uuids.size(), "rejectedCount", rejected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error batch rejecting deals: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/deals/batch-activate")
+    public ResponseEntity<?> activateDeals(@RequestBody Map<String, Object> request) {
+        return setDealsActive(request, true);
+    }
+    
+    @PostMapping("/deals/batch-deactivate")
+    public ResponseEntity<?> deactivateDeals(@RequestBody Map<String, Object> request) {
+        return setDealsActive(request, false);
+    }
+    
+    private ResponseEntity<?> setDealsActive(Map<String, Object> request, boolean active) {
+        try {
+            List<UUID> uuids = parseDealIds(request);
+            if (uuids.isEmpty()) {
+                return ResponseEntity.status(400).body(Map.of("error", "dealIds is required"));
+            }
+            int updated = dealService.setDealsActive(uuids, active);
+            return ResponseEntity.ok(Map.of("requestedCount", uuids.size(), "updatedCount", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error batch {} deals: {}", active ? "activating" : "deactivating", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /** The "dealIds" array of a batch request body; empty if absent. */
+    private static List<UUID> parseDealIds(Map<String, Object> request) {
+        @SuppressWarnings("unchecked")
+        List<String> dealIds = (List<String>) request.get("dealIds");
+        if (dealIds == null) {
+            return List.of();
+        }
+        return dealIds.stream()
+                .distinct()
+                .map(UUID::fromString)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Bulk import: the request body is NDJSON (one deal per line) or CSV with a header
+     * row, read as a stream. Per-row validation errors come back in the result.
+     */
+    @PostMapping("/deals/import")
+    public ResponseEntity<?> importDeals(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime batchDate,
+            HttpServletRequest request) {
+        try {
+            DealImportService.Format importFormat = DealImportService.Format.from(format, request.getContentType());
+            DealImportResultDTO result = dealImportService.importDeals(request.getInputStream(), importFormat, batchDate);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error importing deals: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @PostMapping("/deals/{dealId}/reject")
     public ResponseEntity<?> rejectDeal(
             @PathVariable UUID dealId,
@@ -363,10 +521,20 @@ public class AdminController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) Boolean active) {
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "exact") String countStrategy) {
         try {
-            Page<DealDTO> deals = dealService.getApprovedDeals(page, size, city, active);
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(dealService.getApprovedDealsByCursor(cursor, size, city, active, includeTotal));
+            }
+            Page<DealSummaryDTO> deals = dealService.getApprovedDeals(page, size, city, active,
+                CountStrategy.from(countStrategy));
             return ResponseEntity.ok(deals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching approved deals: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -378,10 +546,19 @@ public class AdminController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "exact") String countStrategy,
             Authentication authentication) {
         try {
-            Page<DealDTO> deals = dealService.getRejectedDeals(page, size, city);
+            if (keyset || cursor != null) {
+                return ResponseEntity.ok(dealService.getRejectedDealsByCursor(cursor, size, city, includeTotal));
+            }
+            Page<DealSummaryDTO> deals = dealService.getRejectedDeals(page, size, city, CountStrategy.from(countStrategy));
             return ResponseEntity.ok(deals);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching rejected deals: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
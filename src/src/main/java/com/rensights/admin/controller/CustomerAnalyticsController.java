@@ -1,22 +1,33 @@
 package com.rensights.admin.controller;
 
 import com.rensights.admin.dto.ActivityTimelineItemDTO;
+import com.rensights.admin.dto.CountStrategy;
+import com.rensights.admin.dto.CursorPageDTO;
 import com.rensights.admin.dto.CustomerAnalyticsSummaryDTO;
 import com.rensights.admin.dto.CustomerLoginStatDTO;
 import com.rensights.admin.dto.DailyActiveUsersPointDTO;
 import com.rensights.admin.dto.EventTypeStatDTO;
+import com.rensights.admin.dto.ExportJobDTO;
+import com.rensights.admin.dto.Granularity;
 import com.rensights.admin.dto.LoginEventDTO;
 import com.rensights.admin.dto.PageViewStatDTO;
 import com.rensights.admin.dto.UserLoginSummaryDTO;
+import com.rensights.admin.model.ExportJob;
 import com.rensights.admin.service.CustomerAnalyticsService;
+import com.rensights.admin.service.ExportJobNotFoundException;
+import com.rensights.admin.service.ExportJobService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 
@@ -31,12 +42,20 @@ public class CustomerAnalyticsController {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerAnalyticsController.class);
 
+    private static final MediaType CSV_MEDIA_TYPE = MediaType.parseMediaType("text/csv");
+    private static final MediaType AVRO_MEDIA_TYPE = MediaType.parseMediaType("application/avro");
+
     private final CustomerAnalyticsService customerAnalyticsService;
+    private final ExportJobService exportJobService;
 
+    /**
+     * exact=true counts login_events directly instead of merging the daily
+     * active-user sketches (slower; the sketches are within about 1%).
+     */
     @GetMapping("/summary")
-    public ResponseEntity<?> getSummary() {
+    public ResponseEntity<?> getSummary(@RequestParam(defaultValue = "false") boolean exact) {
         try {
-            CustomerAnalyticsSummaryDTO summary = customerAnalyticsService.getSummary();
+            CustomerAnalyticsSummaryDTO summary = customerAnalyticsService.getSummary(exact);
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
             logger.error("Error fetching customer analytics summary: {}", e.getMessage(), e);
@@ -44,11 +63,21 @@ public class CustomerAnalyticsController {
         }
     }
 
+    /**
+     * Dense series of distinct active users. granularity=hour|day|week|month (default
+     * day); tz is an IANA zone for the bucket boundaries (default: server zone).
+     */
     @GetMapping("/trend")
-    public ResponseEntity<?> getTrend(@RequestParam(defaultValue = "30") int days) {
+    public ResponseEntity<?> getTrend(@RequestParam(defaultValue = "30") int days,
+                                      @RequestParam(required = false) String granularity,
+                                      @RequestParam(required = false) String tz,
+                                      @RequestParam(defaultValue = "false") boolean exact) {
         try {
-            List<DailyActiveUsersPointDTO> trend = customerAnalyticsService.getDailyTrend(days);
+            List<DailyActiveUsersPointDTO> trend = customerAnalyticsService.getDailyTrend(
+                days, Granularity.from(granularity, Granularity.DAY), tz, exact);
             return ResponseEntity.ok(trend);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching DAU trend: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -56,64 +85,166 @@ public class CustomerAnalyticsController {
     }
 
     @GetMapping("/trend/monthly-active")
-    public ResponseEntity<?> getMonthlyActiveTrend(@RequestParam(defaultValue = "12") int months) {
+    public ResponseEntity<?> getMonthlyActiveTrend(@RequestParam(defaultValue = "12") int months,
+                                                   @RequestParam(required = false) String tz,
+                                                   @RequestParam(defaultValue = "false") boolean exact) {
         try {
-            return ResponseEntity.ok(customerAnalyticsService.getMonthlyActiveTrend(months));
+            return ResponseEntity.ok(customerAnalyticsService.getMonthlyActiveTrend(months, tz, exact));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching MAU trend: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * granularity=hour|day|week|month (default month) over the last {@code months}
+     * calendar months; tz as for /trend.
+     */
     @GetMapping("/trend/customer-growth")
-    public ResponseEntity<?> getCustomerGrowthTrend(@RequestParam(defaultValue = "12") int months) {
+    public ResponseEntity<?> getCustomerGrowthTrend(@RequestParam(defaultValue = "12") int months,
+                                                    @RequestParam(required = false) String granularity,
+                                                    @RequestParam(required = false) String tz) {
         try {
-            return ResponseEntity.ok(customerAnalyticsService.getCustomerGrowthTrend(months));
+            return ResponseEntity.ok(customerAnalyticsService.getCustomerGrowthTrend(
+                months, Granularity.from(granularity, Granularity.MONTH), tz));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching customer growth trend: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * format=csv (default) or format=avro for a deflate-compressed Avro container file.
+     */
     @GetMapping("/customers/export")
-    public ResponseEntity<?> exportCustomerLoginStats() {
+    public ResponseEntity<StreamingResponseBody> exportCustomerLoginStats(
+            @RequestParam(defaultValue = "csv") String format) {
+        boolean avro = "avro".equalsIgnoreCase(format);
+        String filename = "customer-login-stats-" + LocalDate.now() + (avro ? ".avro" : ".csv");
+        // Rows are streamed straight from the database cursor. Once the first bytes are
+        // out the status can no longer change, so a mid-stream failure is only logged
+        // and shows up client-side as a truncated download.
+        StreamingResponseBody body = out -> {
+            try {
+                if (avro) {
+                    customerAnalyticsService.writeCustomerLoginStatsAvro(out);
+                } else {
+                    customerAnalyticsService.writeCustomerLoginStatsCsv(out);
+                }
+            } catch (Exception e) {
+                logger.error("Error exporting customer login stats: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .contentType(avro ? AVRO_MEDIA_TYPE : CSV_MEDIA_TYPE)
+            .body(body);
+    }
+
+    @GetMapping("/customers/export-all")
+    public ResponseEntity<StreamingResponseBody> exportEverything(
+            @RequestParam(defaultValue = "csv") String format) {
+        boolean avro = "avro".equalsIgnoreCase(format);
+        String filename = "customer-analytics-full-export-" + LocalDate.now() + (avro ? ".avro" : ".csv");
+        StreamingResponseBody body = out -> {
+            try {
+                if (avro) {
+                    customerAnalyticsService.writeFullExportAvro(out);
+                } else {
+                    customerAnalyticsService.writeFullExportCsv(out);
+                }
+            } catch (Exception e) {
+                logger.error("Error exporting full customer analytics: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .contentType(avro ? AVRO_MEDIA_TYPE : CSV_MEDIA_TYPE)
+            .body(body);
+    }
+
+    @GetMapping("/customers")
+    public ResponseEntity<?> getCustomerLoginStats(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "exact") String countStrategy) {
         try {
-            String csv = customerAnalyticsService.buildCustomerLoginStatsCsv();
-            String filename = "customer-login-stats-" + LocalDate.now() + ".csv";
-            return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+            Page<CustomerLoginStatDTO> stats = customerAnalyticsService.getCustomerLoginStats(page, size,
+                CountStrategy.from(countStrategy));
+            return ResponseEntity.ok(stats);
         } catch (Exception e) {
-            logger.error("Error exporting customer login stats: {}", e.getMessage(), e);
+            logger.error("Error fetching customer login stats: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
-    @GetMapping("/customers/export-all")
-    public ResponseEntity<?> exportEverything() {
+    /**
+     * Queue an export to run in the background. type=customers (login stats) or
+     * type=full (every event). Poll GET /exports/{jobId}, then download the file.
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<?> createExportJob(@RequestParam String type, Authentication authentication) {
+        ExportJob.ExportType exportType;
+        if ("customers".equalsIgnoreCase(type)) {
+            exportType = ExportJob.ExportType.CUSTOMER_LOGIN_STATS;
+        } else if ("full".equalsIgnoreCase(type)) {
+            exportType = ExportJob.ExportType.FULL_ANALYTICS;
+        } else {
+            return ResponseEntity.status(400).body(Map.of("error", "type must be 'customers' or 'full'"));
+        }
         try {
-            String csv = customerAnalyticsService.buildFullExportCsv();
-            String filename = "customer-analytics-full-export-" + LocalDate.now() + ".csv";
-            return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .body(csv);
+            String requestedBy = authentication != null ? authentication.getName() : null;
+            ExportJobDTO job = exportJobService.submit(exportType, requestedBy);
+            return ResponseEntity.status(202).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Error exporting full customer analytics: {}", e.getMessage(), e);
+            logger.error("Error creating export job: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
 
-    @GetMapping("/customers")
-    public ResponseEntity<?> getCustomerLoginStats(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+    @GetMapping("/exports/{jobId}")
+    public ResponseEntity<?> getExportJob(@PathVariable UUID jobId) {
         try {
-            Page<CustomerLoginStatDTO> stats = customerAnalyticsService.getCustomerLoginStats(page, size);
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(exportJobService.getJob(jobId));
+        } catch (ExportJobNotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            logger.error("Error fetching customer login stats: {}", e.getMessage(), e);
+            logger.error("Error fetching export job: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Serves the finished file. The body is a Resource, so Spring MVC answers Range
+     * requests with 206 partial content and interrupted downloads can resume.
+     */
+    @GetMapping("/exports/{jobId}/download")
+    public ResponseEntity<?> downloadExport(@PathVariable UUID jobId) {
+        try {
+            ExportJob job = exportJobService.getCompletedJob(jobId);
+            Resource file = new FileSystemResource(exportJobService.resolveFile(job));
+            if (!file.exists()) {
+                return ResponseEntity.status(404).body(Map.of("error", "Export file is no longer available"));
+            }
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(file);
+        } catch (ExportJobNotFoundException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error downloading export: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
@@ -165,14 +296,28 @@ public class CustomerAnalyticsController {
         }
     }
 
+    /**
+     * Cursor-paginated: pass the previous response's nextCursor as cursor. The
+     * timeline used to be offset-paginated, so a leftover page parameter is refused
+     * rather than silently answered with the first page again.
+     */
     @GetMapping("/customers/{userId}/timeline")
     public ResponseEntity<?> getUserActivityTimeline(
             @PathVariable UUID userId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
             @RequestParam(defaultValue = "20") int size) {
+        if (page != null && cursor == null) {
+            return ResponseEntity.status(400).body(Map.of("error",
+                "The timeline is cursor-paginated; 'page' is not supported. "
+                    + "Omit it for the first page and pass the response's nextCursor as 'cursor' for the next."));
+        }
         try {
-            Page<ActivityTimelineItemDTO> timeline = customerAnalyticsService.getUserActivityTimeline(userId, page, size);
+            CursorPageDTO<ActivityTimelineItemDTO> timeline =
+                customerAnalyticsService.getUserActivityTimeline(userId, cursor, size);
             return ResponseEntity.ok(timeline);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error fetching activity timeline for user {}: {}", userId, e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -0,0 +1,30 @@
+package com.rensights.admin.dto;
+
+/**
+ * How a paginated endpoint arrived at its totalElements.
+ *
+ * - EXACT: SELECT COUNT(*) on every request (the default).
+ * - ESTIMATED: PostgreSQL statistics - pg_class.reltuples for a whole table, the
+ *   planner's row estimate for a filtered list. Cheap, but only as fresh as the
+ *   last ANALYZE.
+ * - CACHED: an exact count, reused for a short TTL.
+ */
+public enum CountStrategy {
+    EXACT,
+    ESTIMATED,
+    CACHED;
+
+    /**
+     * Lenient parse of a request parameter; anything unrecognised means EXACT.
+     */
+    public static CountStrategy from(String value) {
+        if (value != null) {
+            for (CountStrategy strategy : values()) {
+                if (strategy.name().equalsIgnoreCase(value.trim())) {
+                    return strategy;
+                }
+            }
+        }
+        return EXACT;
+    }
+}
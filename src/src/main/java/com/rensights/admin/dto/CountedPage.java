@@ -0,0 +1,24 @@
+package com.rensights.admin.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A Page whose totalElements may be an estimate; countStrategy tells the client
+ * which, so it can render "~1.2M" rather than an exact figure.
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final CountStrategy countStrategy;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, CountStrategy countStrategy) {
+        super(content, pageable, total);
+        this.countStrategy = countStrategy;
+    }
+
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+}
@@ -0,0 +1,40 @@
+package com.rensights.admin.dto;
+
+import com.rensights.admin.util.KeysetCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass nextCursor back as ?cursor= to get the
+ * following page; it is null on the last page. totalElements is only filled in when
+ * the caller asked for it, since the count is what makes deep offset pages slow.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+
+    public static <E, T> CursorPageDTO<T> of(Window<E> window, Function<E, T> mapper, Long totalElements) {
+        String nextCursor = window.hasNext() && !window.isEmpty()
+            ? KeysetCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1))
+            : null;
+        return new CursorPageDTO<>(
+            window.map(mapper).getContent(),
+            window.size(),
+            nextCursor != null,
+            nextCursor,
+            totalElements
+        );
+    }
+}
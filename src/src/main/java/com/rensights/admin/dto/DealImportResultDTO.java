@@ -0,0 +1,30 @@
+package com.rensights.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class DealImportResultDTO {
+    private long received;           // data rows read (header and blank lines excluded)
+    private long rejected;           // rows that failed validation
+    private long duplicatesInBatch;  // valid rows superseded by a later row with the same propertyId
+    private long skippedExisting;    // propertyIds already present in deals
+    private long inserted;
+    private LocalDateTime batchDate;
+    private long elapsedMs;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String propertyId;
+        private String message;
+    }
+}
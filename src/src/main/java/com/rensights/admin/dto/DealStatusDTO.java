@@ -0,0 +1,17 @@
+package com.rensights.admin.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Compact per-deal result of a batch operation. */
+@Data
+@Builder
+public class DealStatusDTO {
+    private UUID id;
+    private String status;
+    private Boolean active;
+    private LocalDateTime approvedAt;
+}
@@ -0,0 +1,20 @@
+package com.rensights.admin.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ExportJobDTO {
+    private String id;
+    private String exportType;
+    private String status;
+    private String fileName;
+    private Long fileSize;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,54 @@
+package com.rensights.admin.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bucket size of a trend series. {@code unit} is the PostgreSQL date_trunc field
+ * and {@code step} the generate_series interval; {@code label} formats a bucket
+ * start for the existing string-labelled trend DTOs.
+ */
+public enum Granularity {
+    HOUR("hour", "1 hour", DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00")),
+    DAY("day", "1 day", DateTimeFormatter.ISO_LOCAL_DATE),
+    WEEK("week", "1 week", DateTimeFormatter.ISO_LOCAL_DATE),
+    MONTH("month", "1 month", DateTimeFormatter.ofPattern("yyyy-MM"));
+
+    private final String unit;
+    private final String step;
+    private final DateTimeFormatter labelFormat;
+
+    Granularity(String unit, String step, DateTimeFormatter labelFormat) {
+        this.unit = unit;
+        this.step = step;
+        this.labelFormat = labelFormat;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    public String step() {
+        return step;
+    }
+
+    public String label(LocalDateTime bucket) {
+        return labelFormat.format(bucket);
+    }
+
+    /**
+     * Parse of a request parameter; blank means {@code fallback}, anything else
+     * unrecognised is rejected.
+     */
+    public static Granularity from(String value, Granularity fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        for (Granularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value.trim())) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported granularity: " + value);
+    }
+}
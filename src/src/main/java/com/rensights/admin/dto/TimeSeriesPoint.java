@@ -0,0 +1,18 @@
+package com.rensights.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One bucket of a dense trend series: the bucket start (in the series' time zone),
+ * its value, and the running total of values from the first bucket.
+ */
+@Data
+@AllArgsConstructor
+public class TimeSeriesPoint {
+    private LocalDateTime bucket;
+    private long value;
+    private long runningTotal;
+}
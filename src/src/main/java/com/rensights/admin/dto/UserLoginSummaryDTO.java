@@ -9,5 +9,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class UserLoginSummaryDTO {
     private long loginCount;
+    private LocalDateTime firstLoginAt;
     private LocalDateTime lastLoginAt;
+    private String lastIp;
 }
@@ -0,0 +1,58 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * HyperLogLog sketch of the distinct users who logged in during one sealed day or
+ * one calendar month (a merge of that month's day sketches), maintained by
+ * ActiveUserSketchService.
+ *
+ * distinctUsers is exact for DAY rows (counted when the day was sealed) and the
+ * sketch estimate for MONTH rows.
+ */
+@Entity
+@Table(name = "active_user_sketches")
+@IdClass(ActiveUserSketch.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveUserSketch {
+    @Id
+    @Column(name = "granularity", nullable = false, length = 10)
+    private String granularity;
+
+    @Id
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "distinct_users", nullable = false)
+    private Long distinctUsers;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    public enum Granularity {
+        DAY,
+        MONTH
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String granularity;
+        private LocalDate periodStart;
+    }
+}
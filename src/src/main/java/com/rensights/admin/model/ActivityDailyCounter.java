@@ -0,0 +1,50 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * How many activity_events of one type (and page path, '' when there is none)
+ * occurred on one day, maintained by ActivityCounterService.
+ */
+@Entity
+@Table(name = "activity_daily_counters", indexes = {
+    // Page-view sums over a day range: event_type = 'PAGE_VIEW' AND counter_day BETWEEN ...
+    @Index(name = "idx_activity_daily_counters_type_day", columnList = "event_type,counter_day")
+})
+@IdClass(ActivityDailyCounter.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityDailyCounter {
+    @Id
+    @Column(name = "counter_day", nullable = false)
+    private LocalDate counterDay;
+
+    @Id
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Id
+    @Column(name = "page_path", nullable = false, length = 500)
+    private String pagePath;
+
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate counterDay;
+        private String eventType;
+        private String pagePath;
+    }
+}
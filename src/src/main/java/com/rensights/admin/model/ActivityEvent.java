@@ -16,7 +16,14 @@ import java.util.UUID;
  * incident for why implicit naming strategy must never be relied on here.
  */
 @Entity
-@Table(name = "activity_events")
+@Table(name = "activity_events", indexes = {
+    // Keyset walk of one customer's timeline (CustomerAnalyticsService#getUserActivityTimeline)
+    @Index(name = "idx_activity_events_user_occurred_id", columnList = "user_id,occurred_at,id"),
+    // Event-type breakdown over a time window
+    @Index(name = "idx_activity_events_occurred_type", columnList = "occurred_at,event_type"),
+    // Top page views: event_type = 'PAGE_VIEW' AND occurred_at >= :since, grouped by page_path
+    @Index(name = "idx_activity_events_type_occurred_path", columnList = "event_type,occurred_at,page_path")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,7 +14,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "analysis_requests")
+@Table(name = "analysis_requests", indexes = {
+    // Backing indexes for SortCatalogue.ANALYSIS_REQUESTS
+    @Index(name = "idx_analysis_requests_created_at_id", columnList = "created_at,id"),
+    @Index(name = "idx_analysis_requests_updated_at_id", columnList = "updated_at,id")
+})
 @Data
 @Builder
 @NoArgsConstructor
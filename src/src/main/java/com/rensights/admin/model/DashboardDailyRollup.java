@@ -0,0 +1,60 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One precomputed dashboard bucket: how many rows of {@code metric} fell on
+ * {@code rollupDay} for a given {@code dimension} (tier, plan, status or device
+ * type), maintained by DashboardRollupService. Explicit column names throughout,
+ * same as LoginEvent.
+ */
+@Entity
+@Table(name = "dashboard_daily_rollups")
+@IdClass(DashboardDailyRollup.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDailyRollup {
+    @Id
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate rollupDay;
+
+    @Id
+    @Column(name = "metric", nullable = false, length = 40)
+    private String metric;
+
+    @Id
+    @Column(name = "dimension", nullable = false, length = 40)
+    private String dimension;
+
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount;
+
+    public enum Metric {
+        /** New users per created day, by current user_tier. */
+        REGISTRATIONS,
+        /** Subscriptions per start day, by plan_type (income is derived from the plan price). */
+        SUBSCRIPTION_STARTS,
+        /** Subscriptions per start day, by current status. */
+        SUBSCRIPTION_STATUS,
+        /** Devices per created day, by classified device type. */
+        DEVICE_TYPES
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate rollupDay;
+        private String metric;
+        private String dimension;
+    }
+}
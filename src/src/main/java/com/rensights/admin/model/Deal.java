@@ -21,7 +21,8 @@ import java.util.UUID;
     @Index(name = "idx_deal_batch_date", columnList = "batch_date"),
     @Index(name = "idx_deal_status_active", columnList = "status,active"),
     @Index(name = "idx_deal_status_city", columnList = "status,city"),
-    @Index(name = "idx_deal_status_city_active", columnList = "status,city,active")
+    @Index(name = "idx_deal_status_city_active", columnList = "status,city,active"),
+    @Index(name = "idx_deal_property_id", columnList = "property_id")
 })
 @Data
 @Builder
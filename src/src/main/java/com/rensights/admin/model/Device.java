@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "devices")
+@Table(name = "devices", indexes = {
+    // Keyset walk for DeviceClassificationService: rows touched since its watermark
+    @Index(name = "idx_devices_updated_at_id", columnList = "updated_at,id"),
+    // Dashboard rollup change detection: rows classified since its watermark
+    @Index(name = "idx_devices_classified_at", columnList = "device_classified_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -40,5 +45,14 @@ public class Device {
     
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    // Admin-owned columns: app-backend inserts devices without them and
+    // DeviceClassificationService fills them in ("Desktop", "Mobile" or "Tablet").
+    // A row is reclassified whenever updated_at moves past the job's watermark.
+    @Column(name = "device_class", length = 16)
+    private String deviceClass;
+
+    @Column(name = "device_classified_at")
+    private LocalDateTime deviceClassifiedAt;
 }
 
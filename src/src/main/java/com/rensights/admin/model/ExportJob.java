@@ -0,0 +1,86 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "export_jobs", indexes = {
+    @Index(name = "idx_export_jobs_created_at", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "export_type", nullable = false, length = 40)
+    private ExportType exportType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ExportStatus status = ExportStatus.QUEUED;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    // Relative to reports.storage.path
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Instance whose worker pool holds the job, and when that instance last confirmed
+    // it was still queued or running there. Other instances only fail a job once its
+    // heartbeat has gone stale.
+    @Column(name = "owner_instance", length = 100)
+    private String ownerInstance;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public enum ExportType {
+        CUSTOMER_LOGIN_STATS,
+        FULL_ANALYTICS
+    }
+
+    public enum ExportStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
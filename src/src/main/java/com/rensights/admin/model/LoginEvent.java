@@ -16,7 +16,13 @@ import java.util.UUID;
  * settingKey/setting_key incident for why).
  */
 @Entity
-@Table(name = "login_events")
+@Table(name = "login_events", indexes = {
+    // Per-customer lookups newest first, login aggregates per user, and the keyset
+    // walk of one customer's timeline (scanned backwards for DESC)
+    @Index(name = "idx_login_events_user_logged_in_id", columnList = "user_id,logged_in_at,id"),
+    // DAU/MAU: logged_in_at >= :since with COUNT(DISTINCT user_id), index-only
+    @Index(name = "idx_login_events_logged_in_user", columnList = "logged_in_at,user_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,33 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Space-Saving top-K summary (util.SpaceSaving, as JSON) of one closed month's
+ * page views, built from activity_daily_counters. Long-window top-page queries
+ * merge these instead of summing every day's counters.
+ */
+@Entity
+@Table(name = "page_view_monthly_summaries")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageViewMonthlySummary {
+    @Id
+    @Column(name = "summary_month", nullable = false)
+    private LocalDate summaryMonth;
+
+    @Column(name = "summary", nullable = false, columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
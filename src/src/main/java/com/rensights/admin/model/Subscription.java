@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(name = "subscriptions", indexes = {
+    // Backing indexes for SortCatalogue.SUBSCRIPTIONS
+    @Index(name = "idx_subscriptions_created_at_id", columnList = "created_at,id"),
+    @Index(name = "idx_subscriptions_start_date_id", columnList = "start_date,id"),
+    @Index(name = "idx_subscriptions_updated_at_id", columnList = "updated_at,id")
+})
 @Data
 @Builder
 @NoArgsConstructor
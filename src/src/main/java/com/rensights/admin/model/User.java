@@ -10,7 +10,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Backing indexes for SortCatalogue.USERS
+    @Index(name = "idx_users_created_at_id", columnList = "created_at,id"),
+    @Index(name = "idx_users_updated_at_id", columnList = "updated_at,id"),
+    // PresenceTracker polls last_seen_at >= :since every few seconds
+    @Index(name = "idx_users_last_seen_at", columnList = "last_seen_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
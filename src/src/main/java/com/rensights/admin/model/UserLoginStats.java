@@ -0,0 +1,42 @@
+package com.rensights.admin.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-customer login aggregates over login_events up to the UserLoginStatsService
+ * watermark, maintained by UserLoginStatsService.
+ */
+@Entity
+@Table(name = "user_login_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLoginStats {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "login_count", nullable = false)
+    private Long loginCount;
+
+    @Column(name = "first_login_at")
+    private LocalDateTime firstLoginAt;
+
+    @Column(name = "last_login_at")
+    private LocalDateTime lastLoginAt;
+
+    /** ip_address of the login at last_login_at. */
+    @Column(name = "last_ip")
+    private String lastIp;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.ActiveUserSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ActiveUserSketchRepository extends JpaRepository<ActiveUserSketch, ActiveUserSketch.Key> {
+
+    List<ActiveUserSketch> findByGranularityAndPeriodStartBetweenOrderByPeriodStart(
+        String granularity, LocalDate from, LocalDate to);
+
+    // Counts only - the trends don't need the 16 KB sketches themselves.
+    @Query(value = "SELECT period_start AS periodStart, distinct_users AS distinctUsers "
+        + "FROM active_user_sketches WHERE granularity = :granularity "
+        + "AND period_start >= :from AND period_start <= :to ORDER BY period_start", nativeQuery = true)
+    List<PeriodCount> findCounts(@Param("granularity") String granularity,
+                                 @Param("from") LocalDate from,
+                                 @Param("to") LocalDate to);
+
+    interface PeriodCount {
+        java.sql.Date getPeriodStart();
+        Long getDistinctUsers();
+    }
+}
@@ -0,0 +1,48 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.ActivityDailyCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityDailyCounterRepository extends JpaRepository<ActivityDailyCounter, ActivityDailyCounter.Key> {
+
+    // Adds the events of [from, to) onto the existing counters. Ranges must not overlap
+    // between calls, which the watermark in ActivityCounterService guarantees.
+    @Modifying
+    @Query(value = "INSERT INTO activity_daily_counters (counter_day, event_type, page_path, event_count) "
+        + "SELECT CAST(occurred_at AS DATE), event_type, COALESCE(page_path, ''), COUNT(*) "
+        + "FROM activity_events WHERE occurred_at >= :from AND occurred_at < :to "
+        + "GROUP BY CAST(occurred_at AS DATE), event_type, COALESCE(page_path, '') "
+        + "ON CONFLICT (counter_day, event_type, page_path) "
+        + "DO UPDATE SET event_count = activity_daily_counters.event_count + EXCLUDED.event_count",
+        nativeQuery = true)
+    int addRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "DELETE FROM activity_daily_counters WHERE counter_day >= :fromDay AND counter_day < :toDay",
+        nativeQuery = true)
+    int deleteDays(@Param("fromDay") LocalDate fromDay, @Param("toDay") LocalDate toDay);
+
+    @Query("SELECT MIN(c.counterDay) FROM ActivityDailyCounter c")
+    Optional<LocalDate> findEarliestDay();
+
+    @Query(value = "SELECT page_path AS pagePath, SUM(event_count) AS viewCount FROM activity_daily_counters "
+        + "WHERE event_type = 'PAGE_VIEW' AND page_path <> '' AND counter_day >= :fromDay AND counter_day <= :toDay "
+        + "GROUP BY page_path", nativeQuery = true)
+    List<ActivityEventRepository.PageViewCount> findPageViewTotals(@Param("fromDay") LocalDate fromDay,
+                                                                  @Param("toDay") LocalDate toDay);
+
+    @Query(value = "SELECT event_type AS eventType, SUM(event_count) AS eventCount FROM activity_daily_counters "
+        + "WHERE counter_day >= :fromDay AND counter_day <= :toDay GROUP BY event_type", nativeQuery = true)
+    List<ActivityEventRepository.EventTypeCount> findEventTypeTotals(@Param("fromDay") LocalDate fromDay,
+                                                                    @Param("toDay") LocalDate toDay);
+}
@@ -1,30 +1,75 @@
 package com.rensights.admin.repository;
 
 import com.rensights.admin.model.ActivityEvent;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ActivityEventRepository extends JpaRepository<ActivityEvent, UUID> {
 
-    Page<ActivityEvent> findByUserIdOrderByOccurredAtDesc(UUID userId, Pageable pageable);
+    // Raw counterparts of the activity_daily_counters sums, for the parts of a window
+    // the counters don't cover yet (see ActivityCounterService).
+    @Query(value = "SELECT page_path AS pagePath, COUNT(*) AS viewCount FROM activity_events "
+        + "WHERE event_type = 'PAGE_VIEW' AND occurred_at >= :from AND occurred_at < :to AND page_path <> '' "
+        + "GROUP BY page_path", nativeQuery = true)
+    List<PageViewCount> findPageViewCountsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(value = "SELECT event_type AS eventType, COUNT(*) AS eventCount FROM activity_events "
+        + "WHERE occurred_at >= :from AND occurred_at < :to GROUP BY event_type", nativeQuery = true)
+    List<EventTypeCount> findEventTypeCountsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query(value = "SELECT page_path AS pagePath, COUNT(*) AS viewCount "
-        + "FROM activity_events WHERE event_type = 'PAGE_VIEW' AND occurred_at >= :since AND page_path IS NOT NULL "
-        + "GROUP BY page_path ORDER BY COUNT(*) DESC LIMIT 20", nativeQuery = true)
-    List<PageViewCount> findTopPageViews(@Param("since") LocalDateTime since);
+    // Full analytics export: every login and activity event with its customer's details,
+    // ordered by customer email then time. Read through a server-side cursor, so it must
+    // be consumed inside a transaction (see UserRepository#streamCustomerLoginStats).
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT e.user_id AS userId, u.email AS email, u.first_name AS firstName, "
+        + "u.last_name AS lastName, u.user_tier AS userTier, u.created_at AS userCreatedAt, "
+        + "e.event_category AS eventCategory, e.event_type AS eventType, e.occurred_at AS occurredAt, "
+        + "e.ip_address AS ipAddress, e.page_path AS pagePath, e.metadata AS metadata "
+        + "FROM ("
+        + "  SELECT user_id, 'LOGIN' AS event_category, 'LOGIN' AS event_type, logged_in_at AS occurred_at, "
+        + "    ip_address, CAST(NULL AS VARCHAR) AS page_path, CAST(NULL AS TEXT) AS metadata "
+        + "  FROM login_events "
+        + "  UNION ALL "
+        + "  SELECT user_id, 'ACTIVITY', event_type, occurred_at, CAST(NULL AS VARCHAR), page_path, metadata "
+        + "  FROM activity_events"
+        + ") e LEFT JOIN users u ON u.id = e.user_id "
+        + "ORDER BY COALESCE(u.email, ''), e.occurred_at", nativeQuery = true)
+    Stream<FullExportRow> streamFullExport();
 
-    @Query(value = "SELECT event_type AS eventType, COUNT(*) AS eventCount "
-        + "FROM activity_events WHERE occurred_at >= :since GROUP BY event_type ORDER BY COUNT(*) DESC", nativeQuery = true)
-    List<EventTypeCount> findEventTypeBreakdown(@Param("since") LocalDateTime since);
+    // One page of a customer's combined login + activity timeline, newest first, starting
+    // strictly after the (occurred_at, id) cursor. Each branch is an index range scan that
+    // stops after :limit rows, so any page costs about 2 * :limit rows however deep it is.
+    @Query(value = "SELECT t.id AS id, t.event_type AS eventType, t.page_path AS pagePath, "
+        + "t.metadata AS metadata, t.occurred_at AS occurredAt FROM ("
+        + "  (SELECT id, 'LOGIN' AS event_type, CAST(NULL AS VARCHAR) AS page_path, ip_address AS metadata, "
+        + "     logged_in_at AS occurred_at "
+        + "   FROM login_events WHERE user_id = :userId AND (logged_in_at, id) < (:beforeAt, :beforeId) "
+        + "   ORDER BY logged_in_at DESC, id DESC LIMIT :limit) "
+        + "  UNION ALL "
+        + "  (SELECT id, event_type, page_path, metadata, occurred_at "
+        + "   FROM activity_events WHERE user_id = :userId AND (occurred_at, id) < (:beforeAt, :beforeId) "
+        + "   ORDER BY occurred_at DESC, id DESC LIMIT :limit)"
+        + ") t ORDER BY t.occurred_at DESC, t.id DESC LIMIT :limit", nativeQuery = true)
+    List<TimelineRow> findTimelinePage(@Param("userId") UUID userId,
+                                       @Param("beforeAt") LocalDateTime beforeAt,
+                                       @Param("beforeId") UUID beforeId,
+                                       @Param("limit") int limit);
 
     interface PageViewCount {
         String getPagePath();
@@ -35,4 +80,27 @@ public interface ActivityEventRepository extends JpaRepository<ActivityEvent, UU
         String getEventType();
         Long getEventCount();
     }
+
+    interface FullExportRow {
+        UUID getUserId();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        String getUserTier();
+        java.sql.Timestamp getUserCreatedAt();
+        String getEventCategory();
+        String getEventType();
+        java.sql.Timestamp getOccurredAt();
+        String getIpAddress();
+        String getPagePath();
+        String getMetadata();
+    }
+
+    interface TimelineRow {
+        UUID getId();
+        String getEventType();
+        String getPagePath();
+        String getMetadata();
+        java.sql.Timestamp getOccurredAt();
+    }
 }
@@ -1,8 +1,10 @@
 package com.rensights.admin.repository;
 
 import com.rensights.admin.model.AnalysisRequest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,7 +12,7 @@ import java.util.UUID;
 
 @Repository
 public interface AnalysisRequestRepository extends JpaRepository<AnalysisRequest, UUID> {
-    Page<AnalysisRequest> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    Window<AnalysisRequest> findAllBy(ScrollPosition position, Sort sort, Limit limit);
     
     long countByStatus(AnalysisRequest.AnalysisRequestStatus status);
 }
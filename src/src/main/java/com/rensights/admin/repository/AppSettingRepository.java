@@ -2,8 +2,14 @@ package com.rensights.admin.repository;
 
 import com.rensights.admin.model.AppSetting;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AppSettingRepository extends JpaRepository<AppSetting, String> {
+
+    // Transaction-scoped advisory lock, see JobCoordinator.
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
 }
@@ -0,0 +1,107 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.DashboardDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DashboardDailyRollupRepository extends JpaRepository<DashboardDailyRollup, DashboardDailyRollup.Key> {
+
+    @Modifying
+    @Query(value = "DELETE FROM dashboard_daily_rollups "
+        + "WHERE metric = :metric AND rollup_day >= :fromDay AND rollup_day < :toDay", nativeQuery = true)
+    int deleteRange(@Param("metric") String metric,
+                    @Param("fromDay") LocalDate fromDay,
+                    @Param("toDay") LocalDate toDay);
+
+    // Rebuild queries: each recomputes every bucket in [from, to) from the source table.
+    // The caller deletes the same range first, so re-running a range is idempotent.
+
+    @Modifying
+    @Query(value = "INSERT INTO dashboard_daily_rollups (rollup_day, metric, dimension, item_count) "
+        + "SELECT CAST(created_at AS DATE), 'REGISTRATIONS', user_tier, COUNT(*) "
+        + "FROM users WHERE created_at >= :from AND created_at < :to "
+        + "GROUP BY CAST(created_at AS DATE), user_tier", nativeQuery = true)
+    int insertRegistrations(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "INSERT INTO dashboard_daily_rollups (rollup_day, metric, dimension, item_count) "
+        + "SELECT CAST(start_date AS DATE), 'SUBSCRIPTION_STARTS', plan_type, COUNT(*) "
+        + "FROM subscriptions WHERE start_date >= :from AND start_date < :to "
+        + "GROUP BY CAST(start_date AS DATE), plan_type", nativeQuery = true)
+    int insertSubscriptionStarts(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "INSERT INTO dashboard_daily_rollups (rollup_day, metric, dimension, item_count) "
+        + "SELECT CAST(start_date AS DATE), 'SUBSCRIPTION_STATUS', status, COUNT(*) "
+        + "FROM subscriptions WHERE start_date >= :from AND start_date < :to "
+        + "GROUP BY CAST(start_date AS DATE), status", nativeQuery = true)
+    int insertSubscriptionStatuses(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Devices still waiting for DeviceClassificationService are left out; classifying
+    // them stamps device_classified_at, which brings their day back into the next refresh.
+    @Modifying
+    @Query(value = "INSERT INTO dashboard_daily_rollups (rollup_day, metric, dimension, item_count) "
+        + "SELECT CAST(created_at AS DATE), 'DEVICE_TYPES', device_class, COUNT(*) "
+        + "FROM devices WHERE created_at >= :from AND created_at < :to AND device_class IS NOT NULL "
+        + "GROUP BY CAST(created_at AS DATE), device_class", nativeQuery = true)
+    int insertDeviceTypes(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Change detection: the bucket days touched by rows modified after the watermark.
+
+    @Query(value = "SELECT DISTINCT CAST(created_at AS DATE) AS day FROM users WHERE updated_at > :watermark", nativeQuery = true)
+    List<ChangedDay> findUserDaysChangedSince(@Param("watermark") LocalDateTime watermark);
+
+    @Query(value = "SELECT DISTINCT CAST(start_date AS DATE) AS day FROM subscriptions WHERE updated_at > :watermark", nativeQuery = true)
+    List<ChangedDay> findSubscriptionDaysChangedSince(@Param("watermark") LocalDateTime watermark);
+
+    // One range scan per index (idx_devices_updated_at_id, idx_devices_classified_at);
+    // the OR over an unindexed device_classified_at used to scan all of devices.
+    @Query(value = "SELECT CAST(created_at AS DATE) AS day FROM devices WHERE updated_at > :watermark "
+        + "UNION SELECT CAST(created_at AS DATE) FROM devices WHERE device_classified_at > :watermark", nativeQuery = true)
+    List<ChangedDay> findDeviceDaysChangedSince(@Param("watermark") LocalDateTime watermark);
+
+    // Read side for the dashboard.
+
+    @Query(value = "SELECT TO_CHAR(DATE_TRUNC('month', rollup_day), 'YYYY-MM') AS month, "
+        + "dimension AS dimension, SUM(item_count) AS total "
+        + "FROM dashboard_daily_rollups WHERE metric = :metric AND rollup_day >= :fromDay "
+        + "GROUP BY DATE_TRUNC('month', rollup_day), dimension", nativeQuery = true)
+    List<MonthlyTotal> findMonthlyTotals(@Param("metric") String metric, @Param("fromDay") LocalDate fromDay);
+
+    @Query(value = "SELECT rollup_day AS day, dimension AS dimension, item_count AS total "
+        + "FROM dashboard_daily_rollups WHERE metric = :metric AND rollup_day >= :fromDay", nativeQuery = true)
+    List<DailyTotal> findDailyTotals(@Param("metric") String metric, @Param("fromDay") LocalDate fromDay);
+
+    @Query(value = "SELECT dimension AS dimension, SUM(item_count) AS total "
+        + "FROM dashboard_daily_rollups WHERE metric = :metric GROUP BY dimension", nativeQuery = true)
+    List<DimensionTotal> findDimensionTotals(@Param("metric") String metric);
+
+    interface ChangedDay {
+        java.sql.Date getDay();
+    }
+
+    interface MonthlyTotal {
+        String getMonth();
+        String getDimension();
+        Long getTotal();
+    }
+
+    interface DailyTotal {
+        java.sql.Date getDay();
+        String getDimension();
+        Long getTotal();
+    }
+
+    interface DimensionTotal {
+        String getDimension();
+        Long getTotal();
+    }
+}
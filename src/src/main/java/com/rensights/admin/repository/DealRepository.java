@@ -1,14 +1,19 @@
 package com.rensights.admin.repository;
 
 import com.rensights.admin.model.Deal;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -16,15 +21,19 @@ import java.util.UUID;
 @Repository
 public interface DealRepository extends JpaRepository<Deal, UUID> {
     
-    Page<Deal> findByStatus(Deal.DealStatus status, Pageable pageable);
+    // List finders return Slice so no COUNT(*) runs with them; DealService resolves
+    // totals through PageCountService and the count methods below. They take the
+    // result type so list views can ask for DealListView and skip the TEXT columns.
+    <T> Slice<T> findByStatus(Deal.DealStatus status, Pageable pageable, Class<T> type);
     
-    Page<Deal> findByStatusAndCity(Deal.DealStatus status, String city, Pageable pageable);
+    <T> Slice<T> findByStatusAndCity(Deal.DealStatus status, String city, Pageable pageable, Class<T> type);
     
     // Optimized: Use date range instead of DATE() function to allow index usage
-    Page<Deal> findByStatusAndBatchDateBetween(Deal.DealStatus status, 
-                                                LocalDateTime startDate, 
-                                                LocalDateTime endDate, 
-                                                Pageable pageable);
+    <T> Slice<T> findByStatusAndBatchDateBetween(Deal.DealStatus status, 
+                                                 LocalDateTime startDate, 
+                                                 LocalDateTime endDate, 
+                                                 Pageable pageable,
+                                                 Class<T> type);
     
     List<Deal> findByIdIn(List<UUID> ids);
     
@@ -35,14 +44,123 @@ public interface DealRepository extends JpaRepository<Deal, UUID> {
     
     // Optimized: Bulk update for batch approval (better performance than saveAll)
     @Modifying
-    @Query("UPDATE Deal d SET d.status = 'APPROVED', d.approvedAt = :approvedAt, d.approvedBy = :approvedBy WHERE d.id IN :ids")
+    @Query("UPDATE Deal d SET d.status = 'APPROVED', d.approvedAt = :approvedAt, d.approvedBy = :approvedBy, " +
+           "d.updatedAt = :approvedAt WHERE d.id IN :ids")
     int bulkApproveDeals(@Param("ids") List<UUID> ids, 
                          @Param("approvedBy") UUID approvedBy, 
                          @Param("approvedAt") LocalDateTime approvedAt);
     
-    Page<Deal> findByStatusAndActive(Deal.DealStatus status, Boolean active, Pageable pageable);
+    // Same update as bulkApproveDeals, but hands back a compact row per approved deal
+    // so the caller doesn't have to re-read the deals (and their TEXT columns).
+    @Query(value = "UPDATE deals SET status = 'APPROVED', approved_at = :approvedAt, approved_by = :approvedBy, " +
+                   "updated_at = :approvedAt WHERE id IN :ids " +
+                   "RETURNING id AS id, status AS status, active AS active, approved_at AS approvedAt",
+           nativeQuery = true)
+    List<DealStatusRow> bulkApproveDealsReturning(@Param("ids") List<UUID> ids,
+                                                  @Param("approvedBy") UUID approvedBy,
+                                                  @Param("approvedAt") LocalDateTime approvedAt);
     
-    Page<Deal> findByStatusAndActiveAndCity(Deal.DealStatus status, Boolean active, String city, Pageable pageable);
+    interface DealStatusRow {
+        UUID getId();
+        String getStatus();
+        Boolean getActive();
+        java.sql.Timestamp getApprovedAt();
+    }
+    
+    // Set-based state transitions: one UPDATE per call instead of load/mutate/save per deal.
+    // Bulk JPQL skips @PreUpdate, so updatedAt is set explicitly.
+    @Modifying
+    @Query("UPDATE Deal d SET d.status = 'REJECTED', d.updatedAt = :updatedAt " +
+           "WHERE d.id IN :ids AND d.status <> 'REJECTED'")
+    int bulkRejectDeals(@Param("ids") List<UUID> ids, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Modifying
+    @Query("UPDATE Deal d SET d.active = :active, d.updatedAt = :updatedAt " +
+           "WHERE d.id IN :ids AND d.active <> :active")
+    int bulkSetActive(@Param("ids") List<UUID> ids,
+                      @Param("active") Boolean active,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Approves every pending deal of a batch window, optionally narrowed by city and building status
+    @Modifying
+    @Query("UPDATE Deal d SET d.status = 'APPROVED', d.approvedAt = :approvedAt, d.approvedBy = :approvedBy, " +
+           "d.updatedAt = :approvedAt " +
+           "WHERE d.status = 'PENDING' AND d.batchDate BETWEEN :startDate AND :endDate " +
+           "AND (:city IS NULL OR d.city = :city) " +
+           "AND (:buildingStatus IS NULL OR d.buildingStatus = :buildingStatus)")
+    int bulkApprovePendingInBatch(@Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate,
+                                  @Param("city") String city,
+                                  @Param("buildingStatus") Deal.BuildingStatus buildingStatus,
+                                  @Param("approvedBy") UUID approvedBy,
+                                  @Param("approvedAt") LocalDateTime approvedAt);
+    
+    <T> Slice<T> findByStatusAndActive(Deal.DealStatus status, Boolean active, Pageable pageable, Class<T> type);
+    
+    <T> Slice<T> findByStatusAndActiveAndCity(Deal.DealStatus status, Boolean active, String city, Pageable pageable,
+                                              Class<T> type);
+    
+    // Keyset pagination variants of the list queries above (see KeysetCursor).
+    <T> Window<T> findByStatus(Deal.DealStatus status, ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    <T> Window<T> findByStatusAndCity(Deal.DealStatus status, String city, ScrollPosition position, Sort sort,
+                                      Limit limit, Class<T> type);
+
+    <T> Window<T> findByStatusAndActive(Deal.DealStatus status, Boolean active, ScrollPosition position, Sort sort,
+                                        Limit limit, Class<T> type);
+
+    <T> Window<T> findByStatusAndActiveAndCity(Deal.DealStatus status, Boolean active, String city,
+                                               ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    <T> Window<T> findByStatusAndBatchDateBetween(Deal.DealStatus status,
+                                                  LocalDateTime startDate,
+                                                  LocalDateTime endDate,
+                                                  ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    long countByStatus(Deal.DealStatus status);
+
+    long countByStatusAndCity(Deal.DealStatus status, String city);
+
+    long countByStatusAndActive(Deal.DealStatus status, Boolean active);
+
+    long countByStatusAndActiveAndCity(Deal.DealStatus status, Boolean active, String city);
+
+    // Closed projection for the deal lists: only these columns are selected. It keeps
+    // every sort key (createdAt, approvedAt, updatedAt, id) so keyset scrolling works.
+    interface DealListView {
+        UUID getId();
+        String getName();
+        String getLocation();
+        String getCity();
+        String getArea();
+        String getBedrooms();
+        String getBedroomCount();
+        String getSize();
+        String getListedPrice();
+        BigDecimal getPriceValue();
+        BigDecimal getEstimateMin();
+        BigDecimal getEstimateMax();
+        String getEstimateRange();
+        String getDiscount();
+        String getRentalYield();
+        String getGrossRentalYield();
+        Deal.BuildingStatus getBuildingStatus();
+        String getPropertyType();
+        String getPriceVsEstimations();
+        BigDecimal getPricePerSqft();
+        BigDecimal getPricePerSqftVsMarket();
+        String getServiceCharge();
+        String getDeveloper();
+        String getPropertyLink();
+        String getPropertyId();
+        Deal.DealStatus getStatus();
+        Boolean getActive();
+        LocalDateTime getBatchDate();
+        LocalDateTime getApprovedAt();
+        UUID getApprovedBy();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
     
     // Fetch deal with listed deals and recent sales relationships
     @Query("SELECT DISTINCT d FROM Deal d " +
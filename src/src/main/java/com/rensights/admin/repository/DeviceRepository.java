@@ -2,13 +2,63 @@ package com.rensights.admin.repository;
 
 import com.rensights.admin.model.Device;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface DeviceRepository extends JpaRepository<Device, UUID> {
     List<Device> findByUserId(UUID userId);
-}
 
+    @Query(value = "SELECT device_class AS deviceType, COUNT(*) AS deviceCount "
+        + "FROM devices WHERE device_class IS NOT NULL GROUP BY device_class", nativeQuery = true)
+    List<DeviceTypeCount> findDeviceTypeCounts();
+
+    // Rows the classification job has not reached yet, collapsed to distinct user agents
+    // so the runtime fallback classifies each UA once rather than each device.
+    @Query(value = "SELECT user_agent AS userAgent, COUNT(*) AS deviceCount "
+        + "FROM devices WHERE device_class IS NULL GROUP BY user_agent", nativeQuery = true)
+    List<UserAgentCount> findUnclassifiedUserAgentCounts();
+
+    // Keyset walk over (updated_at, id), served by idx_devices_updated_at_id: devices
+    // app-backend inserted or touched after the given position, up to :through.
+    @Query(value = "SELECT id AS id, user_agent AS userAgent, updated_at AS updatedAt FROM devices "
+        + "WHERE (updated_at, id) > (:afterUpdatedAt, :afterId) AND updated_at <= :through "
+        + "ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<PendingClassification> findPendingClassification(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                                          @Param("afterId") UUID afterId,
+                                                          @Param("through") LocalDateTime through,
+                                                          @Param("limit") int limit);
+
+    // Deliberately leaves updated_at alone - that column belongs to app-backend.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.deviceClass = :deviceClass, d.deviceClassifiedAt = :classifiedAt WHERE d.id IN :ids")
+    int updateDeviceClass(@Param("ids") Collection<UUID> ids,
+                          @Param("deviceClass") String deviceClass,
+                          @Param("classifiedAt") LocalDateTime classifiedAt);
+
+    interface DeviceTypeCount {
+        String getDeviceType();
+        Long getDeviceCount();
+    }
+
+    interface UserAgentCount {
+        String getUserAgent();
+        Long getDeviceCount();
+    }
+
+    interface PendingClassification {
+        UUID getId();
+        String getUserAgent();
+        Timestamp getUpdatedAt();
+    }
+}
@@ -0,0 +1,35 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, UUID> {
+
+    List<ExportJob> findByCreatedAtBefore(LocalDateTime before);
+
+    // Open jobs nobody is working on any more: this instance's own (only when
+    // includeOwn, i.e. right after it started) and any whose heartbeat is stale or missing.
+    @Query("SELECT j FROM ExportJob j WHERE j.status IN :statuses AND ("
+        + "(:includeOwn = true AND j.ownerInstance = :owner) "
+        + "OR j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    List<ExportJob> findAbandonedJobs(@Param("statuses") Collection<ExportJob.ExportStatus> statuses,
+                                      @Param("owner") String owner,
+                                      @Param("includeOwn") boolean includeOwn,
+                                      @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.heartbeatAt = :now WHERE j.ownerInstance = :owner AND j.status IN :statuses")
+    int touchHeartbeats(@Param("owner") String owner,
+                        @Param("statuses") Collection<ExportJob.ExportStatus> statuses,
+                        @Param("now") LocalDateTime now);
+}
@@ -17,44 +17,32 @@ import java.util.UUID;
 @Repository
 public interface LoginEventRepository extends JpaRepository<LoginEvent, UUID> {
 
-    long countByUserId(UUID userId);
-
-    Optional<LoginEvent> findFirstByUserIdOrderByLoggedInAtDesc(UUID userId);
-
     Page<LoginEvent> findByUserIdOrderByLoggedInAtDesc(UUID userId, Pageable pageable);
 
     @Query(value = "SELECT COUNT(DISTINCT user_id) FROM login_events WHERE logged_in_at >= :since", nativeQuery = true)
     long countDistinctUsersSince(@Param("since") LocalDateTime since);
 
-    @Query(value = "SELECT CAST(logged_in_at AS DATE) AS day, COUNT(DISTINCT user_id) AS activeUsers "
-        + "FROM login_events WHERE logged_in_at >= :since "
-        + "GROUP BY CAST(logged_in_at AS DATE) ORDER BY day", nativeQuery = true)
-    List<DailyActiveCount> findDailyActiveUserCounts(@Param("since") LocalDateTime since);
+    @Query(value = "SELECT COUNT(DISTINCT user_id) FROM login_events "
+        + "WHERE logged_in_at >= :from AND logged_in_at < :to", nativeQuery = true)
+    long countDistinctUsersBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query(value = "SELECT TO_CHAR(DATE_TRUNC('month', logged_in_at), 'YYYY-MM') AS month, "
-        + "COUNT(DISTINCT user_id) AS activeUsers "
-        + "FROM login_events WHERE logged_in_at >= :since "
-        + "GROUP BY DATE_TRUNC('month', logged_in_at) "
-        + "ORDER BY DATE_TRUNC('month', logged_in_at)", nativeQuery = true)
-    List<MonthlyActiveCount> findMonthlyActiveUserCounts(@Param("since") LocalDateTime since);
+    @Query(value = "SELECT DISTINCT user_id FROM login_events "
+        + "WHERE logged_in_at >= :from AND logged_in_at < :to", nativeQuery = true)
+    List<UUID> findDistinctUserIdsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
-    @Query(value = "SELECT user_id AS userId, COUNT(*) AS loginCount, MAX(logged_in_at) AS lastLoginAt "
+    @Query("SELECT MIN(e.loggedInAt) FROM LoginEvent e")
+    Optional<LocalDateTime> findEarliestLoginAt();
+
+    @Query(value = "SELECT user_id AS userId, COUNT(*) AS loginCount, MIN(logged_in_at) AS firstLoginAt, "
+        + "MAX(logged_in_at) AS lastLoginAt, (ARRAY_AGG(ip_address ORDER BY logged_in_at DESC))[1] AS lastIp "
         + "FROM login_events WHERE user_id IN :userIds GROUP BY user_id", nativeQuery = true)
     List<UserLoginStat> findLoginStatsForUsers(@Param("userIds") Collection<UUID> userIds);
 
-    interface DailyActiveCount {
-        java.sql.Date getDay();
-        Long getActiveUsers();
-    }
-
-    interface MonthlyActiveCount {
-        String getMonth();
-        Long getActiveUsers();
-    }
-
     interface UserLoginStat {
         UUID getUserId();
         Long getLoginCount();
+        java.sql.Timestamp getFirstLoginAt();
         java.sql.Timestamp getLastLoginAt();
+        String getLastIp();
     }
 }
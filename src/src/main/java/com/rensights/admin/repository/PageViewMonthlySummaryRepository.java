@@ -0,0 +1,14 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.PageViewMonthlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PageViewMonthlySummaryRepository extends JpaRepository<PageViewMonthlySummary, LocalDate> {
+
+    List<PageViewMonthlySummary> findBySummaryMonthBetweenOrderBySummaryMonth(LocalDate from, LocalDate to);
+}
@@ -2,13 +2,20 @@ package com.rensights.admin.repository;
 
 import com.rensights.admin.model.Subscription;
 import com.rensights.admin.model.Subscription.SubscriptionStatus;
+import com.rensights.admin.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,7 +30,51 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
     
     @EntityGraph(attributePaths = {"user"})
     Page<Subscription> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user"})
+    Window<Subscription> findAllBy(ScrollPosition position, Sort sort, Limit limit);
     
     @EntityGraph(attributePaths = {"user"})
     Optional<Subscription> findById(UUID id);
+
+    // Dashboard income charts: subscription starts per (bucket, plan). Income is derived
+    // from the plan price in AdminService, so only the counts come back from the database.
+    @Query(value = "SELECT TO_CHAR(DATE_TRUNC('month', start_date), 'YYYY-MM') AS month, "
+        + "plan_type AS planType, COUNT(*) AS subscriptionCount "
+        + "FROM subscriptions WHERE start_date >= :since "
+        + "GROUP BY DATE_TRUNC('month', start_date), plan_type", nativeQuery = true)
+    List<MonthlyPlanCount> findMonthlyStartsByPlanType(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT CAST(start_date AS DATE) AS day, plan_type AS planType, COUNT(*) AS subscriptionCount "
+        + "FROM subscriptions WHERE start_date >= :since "
+        + "GROUP BY CAST(start_date AS DATE), plan_type", nativeQuery = true)
+    List<DailyPlanCount> findDailyStartsByPlanType(@Param("since") LocalDateTime since);
+
+    @Query("SELECT s.planType AS planType, COUNT(s) AS subscriptionCount FROM Subscription s GROUP BY s.planType")
+    List<PlanTypeCount> findPlanTypeCounts();
+
+    @Query("SELECT s.status AS status, COUNT(s) AS subscriptionCount FROM Subscription s GROUP BY s.status")
+    List<StatusCount> findStatusCounts();
+
+    interface MonthlyPlanCount {
+        String getMonth();
+        String getPlanType();
+        Long getSubscriptionCount();
+    }
+
+    interface DailyPlanCount {
+        java.sql.Date getDay();
+        String getPlanType();
+        Long getSubscriptionCount();
+    }
+
+    interface PlanTypeCount {
+        User.UserTier getPlanType();
+        Long getSubscriptionCount();
+    }
+
+    interface StatusCount {
+        SubscriptionStatus getStatus();
+        Long getSubscriptionCount();
+    }
 }
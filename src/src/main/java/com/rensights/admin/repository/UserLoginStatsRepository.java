@@ -0,0 +1,53 @@
+package com.rensights.admin.repository;
+
+import com.rensights.admin.model.UserLoginStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserLoginStatsRepository extends JpaRepository<UserLoginStats, UUID> {
+
+    // Folds the logins of (from, to] into the per-user totals. Ranges must not overlap
+    // between calls, which the watermark in UserLoginStatsService guarantees.
+    @Modifying
+    @Query(value = "INSERT INTO user_login_stats "
+        + "(user_id, login_count, first_login_at, last_login_at, last_ip, updated_at) "
+        + "SELECT user_id, COUNT(*), MIN(logged_in_at), MAX(logged_in_at), "
+        + "(ARRAY_AGG(ip_address ORDER BY logged_in_at DESC))[1], NOW() FROM login_events "
+        + "WHERE logged_in_at > :from AND logged_in_at <= :to GROUP BY user_id "
+        + "ON CONFLICT (user_id) DO UPDATE SET "
+        + "login_count = user_login_stats.login_count + EXCLUDED.login_count, "
+        + "first_login_at = LEAST(user_login_stats.first_login_at, EXCLUDED.first_login_at), "
+        + "last_ip = CASE WHEN user_login_stats.last_login_at IS NULL "
+        + "  OR EXCLUDED.last_login_at >= user_login_stats.last_login_at "
+        + "  THEN EXCLUDED.last_ip ELSE user_login_stats.last_ip END, "
+        + "last_login_at = GREATEST(user_login_stats.last_login_at, EXCLUDED.last_login_at), "
+        + "updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int addRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_login_stats", nativeQuery = true)
+    int deleteAllRows();
+
+    // The summary rows of the given users plus their logins after the watermark, as
+    // separate rows per user. One statement, so the watermark, the summary and the
+    // top-up all come from the same snapshot even while an incremental run commits.
+    @Query(value = "SELECT s.user_id AS userId, s.login_count AS loginCount, s.first_login_at AS firstLoginAt, "
+        + "s.last_login_at AS lastLoginAt, s.last_ip AS lastIp FROM user_login_stats s WHERE s.user_id IN :userIds "
+        + "UNION ALL "
+        + "SELECT user_id, COUNT(*), MIN(logged_in_at), MAX(logged_in_at), "
+        + "(ARRAY_AGG(ip_address ORDER BY logged_in_at DESC))[1] FROM login_events "
+        + "WHERE user_id IN :userIds AND logged_in_at > ("
+        + "  SELECT CAST(setting_value AS timestamp) FROM app_settings WHERE setting_key = :watermarkKey) "
+        + "GROUP BY user_id", nativeQuery = true)
+    List<LoginEventRepository.UserLoginStat> findLoginStatsWithRecent(@Param("userIds") Collection<UUID> userIds,
+                                                                     @Param("watermarkKey") String watermarkKey);
+}
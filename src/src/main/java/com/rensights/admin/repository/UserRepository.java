@@ -1,8 +1,16 @@
 package com.rensights.admin.repository;
 
 import com.rensights.admin.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +18,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -19,23 +31,125 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     long countByIsActive(boolean isActive);
     long countByEmailVerified(boolean emailVerified);
 
+    // Offset page without the COUNT(*) that findAll(Pageable) runs; totals come from PageCountService.
+    Slice<User> findAllBy(Pageable pageable);
+
+    // Keyset pagination for the admin user list (see KeysetCursor).
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
     // Strict presence window - no grace period for a missed heartbeat.
     long countByLastSeenAtAfter(LocalDateTime since);
 
+    // Heartbeats since the previous PresenceTracker poll; an index range scan on last_seen_at.
+    @Query(value = "SELECT id AS userId, last_seen_at AS lastSeenAt FROM users WHERE last_seen_at >= :since",
+        nativeQuery = true)
+    List<LastSeen> findLastSeenSince(@Param("since") LocalDateTime since);
+
     // Baseline for the cumulative customer-growth curve: everyone who signed up
     // before the charted window, so the first bucket's running total is the true all-time total.
     long countByCreatedAtBefore(LocalDateTime before);
 
+    // Dashboard registration charts: one row per (bucket, tier), so the result size is
+    // bounded by the charted window rather than the size of the users table.
     @Query(value = "SELECT TO_CHAR(DATE_TRUNC('month', created_at), 'YYYY-MM') AS month, "
-        + "COUNT(*) AS newCustomers "
+        + "user_tier AS userTier, COUNT(*) AS userCount "
+        + "FROM users WHERE created_at >= :since "
+        + "GROUP BY DATE_TRUNC('month', created_at), user_tier", nativeQuery = true)
+    List<MonthlyTierCount> findMonthlyRegistrationsByTier(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT CAST(created_at AS DATE) AS day, user_tier AS userTier, COUNT(*) AS userCount "
         + "FROM users WHERE created_at >= :since "
-        + "GROUP BY DATE_TRUNC('month', created_at) "
-        + "ORDER BY DATE_TRUNC('month', created_at)", nativeQuery = true)
-    List<MonthlyNewCount> findMonthlyNewUserCounts(@Param("since") LocalDateTime since);
+        + "GROUP BY CAST(created_at AS DATE), user_tier", nativeQuery = true)
+    List<DailyTierCount> findDailyRegistrationsByTier(@Param("since") LocalDateTime since);
+
+    // All dashboard headline counters in one round-trip: a single pass over users with
+    // conditional aggregates, plus the two small cross-table counts as scalar subqueries.
+    @Query(value = "SELECT COUNT(*) AS totalUsers, "
+        + "COUNT(*) FILTER (WHERE user_tier = 'FREE') AS freeUsers, "
+        + "COUNT(*) FILTER (WHERE user_tier = 'PREMIUM') AS premiumUsers, "
+        + "COUNT(*) FILTER (WHERE user_tier = 'ENTERPRISE') AS enterpriseUsers, "
+        + "COUNT(*) FILTER (WHERE is_active) AS activeUsers, "
+        + "COUNT(*) FILTER (WHERE email_verified) AS verifiedUsers, "
+        + "(SELECT COUNT(*) FROM subscriptions WHERE status = 'ACTIVE') AS activeSubscriptions, "
+        + "(SELECT COUNT(*) FROM analysis_requests WHERE status = 'PENDING') AS pendingAnalysisRequests "
+        + "FROM users", nativeQuery = true)
+    DashboardCounters findDashboardCounters();
+
+    // Customer login stats export: every user joined to their login aggregate, read
+    // through a server-side cursor. Must be consumed inside a transaction, otherwise
+    // the PostgreSQL driver ignores the fetch size and buffers the whole result.
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT u.id AS userId, u.email AS email, u.first_name AS firstName, u.last_name AS lastName, "
+        + "u.user_tier AS userTier, u.created_at AS createdAt, "
+        + "COALESCE(l.login_count, 0) AS loginCount, l.last_login_at AS lastLoginAt "
+        + "FROM users u LEFT JOIN ("
+        + "  SELECT user_id, COUNT(*) AS login_count, MAX(logged_in_at) AS last_login_at "
+        + "  FROM login_events GROUP BY user_id"
+        + ") l ON l.user_id = u.id "
+        + "ORDER BY u.created_at DESC", nativeQuery = true)
+    Stream<CustomerLoginStatRow> streamCustomerLoginStats();
 
-    interface MonthlyNewCount {
+    // Same rows, with the per-user aggregates read from user_login_stats and topped up
+    // with the logins after its watermark instead of grouping all of login_events.
+    // The watermark is read inside the statement, so it matches the summary rows it sees.
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT u.id AS userId, u.email AS email, u.first_name AS firstName, u.last_name AS lastName, "
+        + "u.user_tier AS userTier, u.created_at AS createdAt, "
+        + "COALESCE(s.login_count, 0) + COALESCE(r.login_count, 0) AS loginCount, "
+        + "GREATEST(s.last_login_at, r.last_login_at) AS lastLoginAt "
+        + "FROM users u LEFT JOIN user_login_stats s ON s.user_id = u.id "
+        + "LEFT JOIN ("
+        + "  SELECT user_id, COUNT(*) AS login_count, MAX(logged_in_at) AS last_login_at "
+        + "  FROM login_events WHERE logged_in_at > ("
+        + "    SELECT CAST(setting_value AS timestamp) FROM app_settings WHERE setting_key = :watermarkKey)"
+        + "  GROUP BY user_id"
+        + ") r ON r.user_id = u.id "
+        + "ORDER BY u.created_at DESC", nativeQuery = true)
+    Stream<CustomerLoginStatRow> streamCustomerLoginStatsFromSummary(@Param("watermarkKey") String watermarkKey);
+
+    interface LastSeen {
+        UUID getUserId();
+        java.sql.Timestamp getLastSeenAt();
+    }
+
+
+    interface MonthlyTierCount {
         String getMonth();
-        Long getNewCustomers();
+        String getUserTier();
+        Long getUserCount();
+    }
+
+    interface DailyTierCount {
+        java.sql.Date getDay();
+        String getUserTier();
+        Long getUserCount();
     }
-}
 
+    interface DashboardCounters {
+        Long getTotalUsers();
+        Long getFreeUsers();
+        Long getPremiumUsers();
+        Long getEnterpriseUsers();
+        Long getActiveUsers();
+        Long getVerifiedUsers();
+        Long getActiveSubscriptions();
+        Long getPendingAnalysisRequests();
+    }
+
+    interface CustomerLoginStatRow {
+        UUID getUserId();
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+        String getUserTier();
+        java.sql.Timestamp getCreatedAt();
+        Long getLoginCount();
+        java.sql.Timestamp getLastLoginAt();
+    }
+}
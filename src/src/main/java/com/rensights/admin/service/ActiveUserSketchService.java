@@ -0,0 +1,231 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.model.ActiveUserSketch;
+import com.rensights.admin.model.ActiveUserSketch.Granularity;
+import com.rensights.admin.repository.ActiveUserSketchRepository;
+import com.rensights.admin.repository.LoginEventRepository;
+import com.rensights.admin.util.HyperLogLog;
+import com.rensights.admin.service.JobCoordinator.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Distinct active-user counts from active_user_sketches instead of
+ * COUNT(DISTINCT user_id) over login_events.
+ *
+ * Once a day is over (plus seal-lag, for late commits) its logins are read once,
+ * stored as a HyperLogLog sketch with the exact count alongside, and merged into
+ * that month's sketch. A window is then answered by merging the month and day
+ * sketches it fully covers; only the uncovered edges - at most a partial day at
+ * each end plus anything not sealed yet - still read login_events.
+ */
+@Service
+public class ActiveUserSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveUserSketchService.class);
+
+    public static final String WATERMARK_KEY = "activeUserSketch.sealedThrough";
+
+    private final ActiveUserSketchRepository sketchRepository;
+    private final LoginEventRepository loginEventRepository;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${analytics.active-users.sketches.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.active-users.sketches.seal-lag:15m}")
+    private Duration sealLag;
+
+    @Value("${analytics.active-users.sketches.backfill-days-per-run:90}")
+    private int backfillDaysPerRun;
+
+    public ActiveUserSketchService(ActiveUserSketchRepository sketchRepository,
+                                   LoginEventRepository loginEventRepository,
+                                   JobCoordinator jobCoordinator) {
+        this.sketchRepository = sketchRepository;
+        this.loginEventRepository = loginEventRepository;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    /**
+     * Seals every finished day after the watermark, oldest first. The first run
+     * backfills from the earliest login, backfill-days-per-run days at a time.
+     */
+    @Scheduled(initialDelayString = "${analytics.active-users.sketches.initial-delay-ms:90000}",
+               fixedDelayString = "${analytics.active-users.sketches.interval-ms:600000}")
+    @Transactional
+    public void sealCompletedDays() {
+        if (!enabled || !jobCoordinator.tryLock(Job.ACTIVE_USER_SKETCHES)) {
+            return;
+        }
+        LocalDate lastClosedDay = LocalDateTime.now().minus(sealLag).toLocalDate().minusDays(1);
+        Optional<LocalDate> sealedThrough = readWatermark();
+        LocalDate day = sealedThrough.isPresent()
+            ? sealedThrough.get().plusDays(1)
+            : loginEventRepository.findEarliestLoginAt()
+                .map(LocalDateTime::toLocalDate)
+                .orElse(lastClosedDay.plusDays(1));
+
+        long started = System.currentTimeMillis();
+        SortedSet<YearMonth> touchedMonths = new TreeSet<>();
+        int sealed = 0;
+        while (!day.isAfter(lastClosedDay) && sealed < backfillDaysPerRun) {
+            sealDay(day);
+            touchedMonths.add(YearMonth.from(day));
+            day = day.plusDays(1);
+            sealed++;
+        }
+        if (sealed == 0) {
+            return;
+        }
+        for (YearMonth month : touchedMonths) {
+            rebuildMonth(month);
+        }
+        writeWatermark(day.minusDays(1));
+        logger.info("Active-user sketches: sealed {} days through {} in {} ms",
+            sealed, day.minusDays(1), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Distinct users who logged in during [from, to). Exact when the window covers
+     * no sealed whole day; otherwise a HyperLogLog estimate (about 0.8% error).
+     */
+    @Transactional(readOnly = true)
+    public long countDistinctUsers(LocalDateTime from, LocalDateTime to) {
+        Optional<LocalDate> sealedThrough = enabled ? readWatermark() : Optional.empty();
+        LocalDate firstWholeDay = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? from.toLocalDate()
+            : from.toLocalDate().plusDays(1);
+        LocalDate sketchEnd = to.toLocalDate();
+        if (sealedThrough.isPresent() && sealedThrough.get().isBefore(sketchEnd)) {
+            sketchEnd = sealedThrough.get().plusDays(1);
+        }
+        if (sealedThrough.isEmpty() || !firstWholeDay.isBefore(sketchEnd)) {
+            return loginEventRepository.countDistinctUsersBetween(from, to);
+        }
+
+        HyperLogLog hll = new HyperLogLog();
+        addLogins(hll, from, firstWholeDay.atStartOfDay());
+        mergeSealed(hll, firstWholeDay, sketchEnd);
+        addLogins(hll, sketchEnd.atStartOfDay(), to);
+        return hll.estimate();
+    }
+
+    /** Last sealed day, or empty before the first run (or when disabled). */
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> sealedThrough() {
+        return enabled ? readWatermark() : Optional.empty();
+    }
+
+    /**
+     * Distinct users per calendar month from {@code fromMonth} through the current
+     * month. Fully sealed months read their month sketch's estimate; the rest are
+     * counted with {@link #countDistinctUsers}.
+     */
+    @Transactional(readOnly = true)
+    public Map<YearMonth, Long> getMonthlyCounts(YearMonth fromMonth) {
+        Map<YearMonth, Long> counts = new TreeMap<>();
+        YearMonth current = YearMonth.now();
+        Optional<LocalDate> sealedThrough = enabled ? readWatermark() : Optional.empty();
+        if (sealedThrough.isPresent()) {
+            for (ActiveUserSketchRepository.PeriodCount row : sketchRepository.findCounts(
+                    Granularity.MONTH.name(), fromMonth.atDay(1), sealedThrough.get())) {
+                YearMonth month = YearMonth.from(row.getPeriodStart().toLocalDate());
+                if (!month.atEndOfMonth().isAfter(sealedThrough.get())) {
+                    counts.put(month, row.getDistinctUsers());
+                }
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (YearMonth month = fromMonth; !month.isAfter(current); month = month.plusMonths(1)) {
+            if (!counts.containsKey(month)) {
+                LocalDateTime end = month.equals(current) ? now : month.plusMonths(1).atDay(1).atStartOfDay();
+                counts.put(month, countDistinctUsers(month.atDay(1).atStartOfDay(), end));
+            }
+        }
+        return counts;
+    }
+
+    /** Merges the sketches of the sealed days [from, to), using month sketches for whole months. */
+    private void mergeSealed(HyperLogLog hll, LocalDate from, LocalDate to) {
+        LocalDate firstWholeMonth = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate wholeMonthsEnd = to.withDayOfMonth(1);
+        if (!firstWholeMonth.isBefore(wholeMonthsEnd)) {
+            mergeRows(hll, Granularity.DAY, from, to);
+            return;
+        }
+        mergeRows(hll, Granularity.DAY, from, firstWholeMonth);
+        mergeRows(hll, Granularity.MONTH, firstWholeMonth, wholeMonthsEnd);
+        mergeRows(hll, Granularity.DAY, wholeMonthsEnd, to);
+    }
+
+    private void mergeRows(HyperLogLog hll, Granularity granularity, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        for (ActiveUserSketch row : sketchRepository.findByGranularityAndPeriodStartBetweenOrderByPeriodStart(
+                granularity.name(), from, to.minusDays(1))) {
+            hll.merge(HyperLogLog.fromBytes(row.getSketch()));
+        }
+    }
+
+    private void addLogins(HyperLogLog hll, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        for (UUID userId : loginEventRepository.findDistinctUserIdsBetween(from, to)) {
+            hll.add(userId);
+        }
+    }
+
+    private void sealDay(LocalDate day) {
+        List<UUID> userIds = loginEventRepository.findDistinctUserIdsBetween(
+            day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        HyperLogLog hll = new HyperLogLog();
+        for (UUID userId : userIds) {
+            hll.add(userId);
+        }
+        saveSketch(Granularity.DAY, day, hll, userIds.size());
+    }
+
+    private void rebuildMonth(YearMonth month) {
+        HyperLogLog hll = new HyperLogLog();
+        mergeRows(hll, Granularity.DAY, month.atDay(1), month.plusMonths(1).atDay(1));
+        saveSketch(Granularity.MONTH, month.atDay(1), hll, hll.estimate());
+    }
+
+    private void saveSketch(Granularity granularity, LocalDate periodStart, HyperLogLog hll, long distinctUsers) {
+        sketchRepository.save(ActiveUserSketch.builder()
+            .granularity(granularity.name())
+            .periodStart(periodStart)
+            .sketch(hll.toBytes())
+            .distinctUsers(distinctUsers)
+            .refreshedAt(LocalDateTime.now())
+            .build());
+    }
+
+    private Optional<LocalDate> readWatermark() {
+        return jobCoordinator.readWatermark(WATERMARK_KEY, LocalDate::parse);
+    }
+
+    private void writeWatermark(LocalDate sealedThrough) {
+        jobCoordinator.writeWatermark(WATERMARK_KEY, sealedThrough);
+    }
+}
@@ -0,0 +1,290 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.model.PageViewMonthlySummary;
+import com.rensights.admin.repository.ActivityDailyCounterRepository;
+import com.rensights.admin.repository.ActivityEventRepository;
+import com.rensights.admin.repository.PageViewMonthlySummaryRepository;
+import com.rensights.admin.util.SpaceSaving;
+import com.rensights.admin.service.JobCoordinator.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Page-view and event-type totals from activity_daily_counters instead of a
+ * GROUP BY over activity_events on every request.
+ *
+ * Each incremental run adds the events of (watermark, now - lag] onto the day
+ * counters and moves the watermark, so every event is counted exactly once. Rows
+ * committed later than the lag allows are picked up by the nightly re-count of
+ * the last few days, which also (re)builds the Space-Saving summary of each
+ * closed month's page views. Reads sum whole days from the counters and only
+ * touch activity_events for a partial first day and anything past the watermark.
+ */
+@Service
+public class ActivityCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityCounterService.class);
+
+    public static final String WATERMARK_KEY = "activityCounters.watermark";
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ActivityDailyCounterRepository counterRepository;
+    private final PageViewMonthlySummaryRepository summaryRepository;
+    private final ActivityEventRepository activityEventRepository;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${analytics.activity-counters.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.activity-counters.lag:2m}")
+    private Duration lag;
+
+    @Value("${analytics.activity-counters.recount-days:2}")
+    private int recountDays;
+
+    @Value("${analytics.activity-counters.top-k.capacity:500}")
+    private int topKCapacity;
+
+    @Value("${analytics.activity-counters.top-k.min-window-days:90}")
+    private int topKMinWindowDays;
+
+    public ActivityCounterService(ActivityDailyCounterRepository counterRepository,
+                                  PageViewMonthlySummaryRepository summaryRepository,
+                                  ActivityEventRepository activityEventRepository,
+                                  JobCoordinator jobCoordinator) {
+        this.counterRepository = counterRepository;
+        this.summaryRepository = summaryRepository;
+        this.activityEventRepository = activityEventRepository;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    @Scheduled(initialDelayString = "${analytics.activity-counters.initial-delay-ms:75000}",
+               fixedDelayString = "${analytics.activity-counters.refresh-interval-ms:300000}")
+    @Transactional
+    public void refreshIncremental() {
+        if (!enabled || !jobCoordinator.tryLock(Job.ACTIVITY_COUNTERS)) {
+            return;
+        }
+        LocalDateTime to = LocalDateTime.now().minus(lag).truncatedTo(ChronoUnit.MICROS);
+        Optional<LocalDateTime> watermark = readWatermark();
+        if (watermark.isEmpty()) {
+            long started = System.currentTimeMillis();
+            counterRepository.deleteAllInBatch();
+            counterRepository.addRange(BEGINNING, to);
+            writeWatermark(to);
+            logger.info("Activity counters fully built through {} in {} ms", to, System.currentTimeMillis() - started);
+            return;
+        }
+        if (watermark.get().isBefore(to)) {
+            counterRepository.addRange(watermark.get(), to);
+            writeWatermark(to);
+        }
+    }
+
+    /**
+     * Re-counts the last recount-days days from scratch (catches rows that were
+     * committed after the incremental run passed them) and refreshes the monthly
+     * page-view summaries.
+     */
+    @Scheduled(cron = "${analytics.activity-counters.recount-cron:0 40 3 * * *}")
+    @Transactional
+    public void recountRecentDays() {
+        if (!enabled || !jobCoordinator.tryLock(Job.ACTIVITY_COUNTERS)) {
+            return;
+        }
+        Optional<LocalDateTime> watermark = readWatermark();
+        if (watermark.isEmpty()) {
+            return;
+        }
+        LocalDate firstDay = watermark.get().toLocalDate().minusDays(Math.max(0, recountDays - 1));
+        counterRepository.deleteDays(firstDay, watermark.get().toLocalDate().plusDays(1));
+        counterRepository.addRange(firstDay.atStartOfDay(), watermark.get());
+
+        refreshMonthlySummaries(YearMonth.from(firstDay), YearMonth.from(watermark.get()));
+    }
+
+    /**
+     * Page views per path over [from, to), largest first. Runs under REPEATABLE READ so
+     * the watermark, the counters and the raw head/tail all come from one snapshot; a
+     * refresh committing in between would otherwise be counted twice or not at all.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Long> getTopPageViews(LocalDateTime from, LocalDateTime to, int limit) {
+        Plan plan = plan(from, to);
+        if (plan == null) {
+            return topEntries(toMap(activityEventRepository.findPageViewCountsBetween(from, to)), limit);
+        }
+        if (plan.lastCountedDay().toEpochDay() - plan.firstWholeDay().toEpochDay() >= topKMinWindowDays) {
+            Map<String, Long> approximate = getTopPageViewsApproximate(plan, from, to, limit);
+            if (approximate != null) {
+                return approximate;
+            }
+        }
+        Map<String, Long> totals = toMap(activityEventRepository.findPageViewCountsBetween(
+            from, plan.firstWholeDay().atStartOfDay()));
+        addAll(totals, toMap(counterRepository.findPageViewTotals(plan.firstWholeDay(), plan.lastCountedDay())));
+        addAll(totals, toMap(activityEventRepository.findPageViewCountsBetween(plan.watermark(), to)));
+        return topEntries(totals, limit);
+    }
+
+    /** Events per type over [from, to), largest first. */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Long> getEventTypeCounts(LocalDateTime from, LocalDateTime to) {
+        Plan plan = plan(from, to);
+        if (plan == null) {
+            return topEntries(toTypeMap(activityEventRepository.findEventTypeCountsBetween(from, to)), Integer.MAX_VALUE);
+        }
+        Map<String, Long> totals = toTypeMap(activityEventRepository.findEventTypeCountsBetween(
+            from, plan.firstWholeDay().atStartOfDay()));
+        addAll(totals, toTypeMap(counterRepository.findEventTypeTotals(plan.firstWholeDay(), plan.lastCountedDay())));
+        addAll(totals, toTypeMap(activityEventRepository.findEventTypeCountsBetween(plan.watermark(), to)));
+        return topEntries(totals, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Long windows: merge the Space-Saving summaries of the whole months inside the
+     * window and feed the remaining counter days and raw edges into the result.
+     * Counts may be overestimated by up to the summaries' minimum count. Returns
+     * null when a month's summary is missing, so the caller sums exactly instead.
+     */
+    private Map<String, Long> getTopPageViewsApproximate(Plan plan, LocalDateTime from, LocalDateTime to, int limit) {
+        LocalDate firstDay = plan.firstWholeDay();
+        LocalDate firstWholeMonth = firstDay.getDayOfMonth() == 1 ? firstDay : firstDay.withDayOfMonth(1).plusMonths(1);
+        // A month is "whole" only if its last day is complete in the counters, i.e. before the watermark's day.
+        LocalDate wholeMonthsEnd = plan.watermark().toLocalDate().withDayOfMonth(1);
+        if (!firstWholeMonth.isBefore(wholeMonthsEnd)) {
+            return null;
+        }
+        List<PageViewMonthlySummary> summaries = summaryRepository.findBySummaryMonthBetweenOrderBySummaryMonth(
+            firstWholeMonth, wholeMonthsEnd.minusDays(1));
+        long months = YearMonth.from(firstWholeMonth).until(YearMonth.from(wholeMonthsEnd), ChronoUnit.MONTHS);
+        if (summaries.size() != months) {
+            return null;
+        }
+
+        SpaceSaving merged = new SpaceSaving(topKCapacity);
+        for (PageViewMonthlySummary summary : summaries) {
+            merged.merge(SpaceSaving.fromJson(summary.getSummary()));
+        }
+        Map<String, Long> edges = toMap(activityEventRepository.findPageViewCountsBetween(from, firstDay.atStartOfDay()));
+        if (firstDay.isBefore(firstWholeMonth)) {
+            addAll(edges, toMap(counterRepository.findPageViewTotals(firstDay, firstWholeMonth.minusDays(1))));
+        }
+        addAll(edges, toMap(counterRepository.findPageViewTotals(wholeMonthsEnd, plan.lastCountedDay())));
+        addAll(edges, toMap(activityEventRepository.findPageViewCountsBetween(plan.watermark(), to)));
+        SpaceSaving edgeSummary = new SpaceSaving(topKCapacity);
+        edges.forEach(edgeSummary::offer);
+        merged.merge(edgeSummary);
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (SpaceSaving.Entry entry : merged.top(limit)) {
+            result.put(entry.item(), entry.count());
+        }
+        return result;
+    }
+
+    private void refreshMonthlySummaries(YearMonth touchedFrom, YearMonth touchedTo) {
+        Optional<LocalDate> earliest = counterRepository.findEarliestDay();
+        if (earliest.isEmpty()) {
+            return;
+        }
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        Set<LocalDate> existing = summaryRepository.findAll().stream()
+            .map(PageViewMonthlySummary::getSummaryMonth)
+            .collect(Collectors.toSet());
+        int built = 0;
+        for (YearMonth month = YearMonth.from(earliest.get()); !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            boolean touched = !month.isBefore(touchedFrom) && !month.isAfter(touchedTo);
+            if (touched || !existing.contains(month.atDay(1))) {
+                SpaceSaving summary = new SpaceSaving(topKCapacity);
+                toMap(counterRepository.findPageViewTotals(month.atDay(1), month.atEndOfMonth())).forEach(summary::offer);
+                summaryRepository.save(PageViewMonthlySummary.builder()
+                    .summaryMonth(month.atDay(1))
+                    .summary(summary.toJson())
+                    .refreshedAt(LocalDateTime.now())
+                    .build());
+                built++;
+            }
+        }
+        if (built > 0) {
+            logger.info("Page-view monthly summaries refreshed: {}", built);
+        }
+    }
+
+    /**
+     * Splits [from, to) into a raw head before the first whole day, counter days
+     * [firstWholeDay, lastCountedDay] and a raw tail from the watermark. Null when
+     * the counters cover no whole day of the window.
+     */
+    private Plan plan(LocalDateTime from, LocalDateTime to) {
+        Optional<LocalDateTime> watermark = enabled ? readWatermark() : Optional.empty();
+        if (watermark.isEmpty()) {
+            return null;
+        }
+        LocalDate firstWholeDay = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? from.toLocalDate()
+            : from.toLocalDate().plusDays(1);
+        if (watermark.get().isBefore(firstWholeDay.atStartOfDay()) || watermark.get().isAfter(to)) {
+            return null;
+        }
+        return new Plan(firstWholeDay, watermark.get().toLocalDate(), watermark.get());
+    }
+
+    private record Plan(LocalDate firstWholeDay, LocalDate lastCountedDay, LocalDateTime watermark) {
+    }
+
+    private static Map<String, Long> toMap(List<ActivityEventRepository.PageViewCount> rows) {
+        Map<String, Long> totals = new HashMap<>();
+        for (ActivityEventRepository.PageViewCount row : rows) {
+            totals.merge(row.getPagePath(), row.getViewCount(), Long::sum);
+        }
+        return totals;
+    }
+
+    private static Map<String, Long> toTypeMap(List<ActivityEventRepository.EventTypeCount> rows) {
+        Map<String, Long> totals = new HashMap<>();
+        for (ActivityEventRepository.EventTypeCount row : rows) {
+            totals.merge(row.getEventType(), row.getEventCount(), Long::sum);
+        }
+        return totals;
+    }
+
+    private static void addAll(Map<String, Long> into, Map<String, Long> from) {
+        from.forEach((key, value) -> into.merge(key, value, Long::sum));
+    }
+
+    private static Map<String, Long> topEntries(Map<String, Long> totals, int limit) {
+        return totals.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(limit)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private Optional<LocalDateTime> readWatermark() {
+        return jobCoordinator.readWatermark(WATERMARK_KEY, LocalDateTime::parse);
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        jobCoordinator.writeWatermark(WATERMARK_KEY, watermark);
+    }
+}
@@ -3,16 +3,21 @@ package com.rensights.admin.service;
 import com.rensights.admin.dto.*;
 import com.rensights.admin.repository.*;
 import com.rensights.admin.model.AnalysisRequest;
-import com.rensights.admin.model.Device;
+import com.rensights.admin.model.DashboardDailyRollup;
 import com.rensights.admin.model.User;
 import com.rensights.admin.model.Subscription;
+import com.rensights.admin.util.KeysetCursor;
+import com.rensights.admin.util.SortCatalogue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -21,6 +26,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import jakarta.annotation.PreDestroy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,6 +39,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +52,12 @@ public class AdminService {
     private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
     private static final long PREMIUM_MONTHLY_PRICE = 20;
     private static final long ENTERPRISE_YEARLY_PRICE = 2000;
+    // Each in-flight dashboard query holds a Hikari connection; keep this well under
+    // maximum-pool-size (10) so a dashboard refresh cannot starve other requests.
+    private static final int DASHBOARD_QUERY_PARALLELISM = 4;
+
+    private final ExecutorService dashboardQueryExecutor = Executors.newFixedThreadPool(
+            DASHBOARD_QUERY_PARALLELISM, new CustomizableThreadFactory("dashboard-query-"));
     
     @Autowired
     private UserRepository userRepository;
@@ -53,6 +71,15 @@ public class AdminService {
     @Autowired
     private AnalysisRequestRepository analysisRequestRepository;
 
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+
+    @Autowired
+    private DeviceClassifier deviceClassifier;
+
+    @Autowired
+    private PageCountService pageCountService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -65,14 +92,28 @@ public class AdminService {
     /**
      * Get all users with pagination
      */
-    public Page<UserDTO> getAllUsers(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") 
-            ? Sort.by(sortBy).descending() 
-            : Sort.by(sortBy).ascending();
+    public Page<UserDTO> getAllUsers(int page, int size, String sortBy, String sortDir, CountStrategy countStrategy) {
+        Sort sort = SortCatalogue.USERS.resolve(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return userRepository.findAll(pageable)
-                .map(this::toUserDTO);
+        Slice<User> users = userRepository.findAllBy(pageable);
+        PageCountService.Total total = pageCountService.count(countStrategy, "users",
+            userRepository::count, () -> pageCountService.estimateTableRows("users"));
+        return new CountedPage<>(users.map(this::toUserDTO).getContent(), pageable, total.value(), total.strategy());
+    }
+
+    /**
+     * Get users with keyset pagination. The cursor carries the last row's sort value
+     * and id, so every page costs the same index range scan; the total is only
+     * counted on request. The sort property should be non-null for every row.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getUsersByCursor(String cursor, int size, String sortBy, String sortDir,
+                                                   boolean includeTotal) {
+        Sort sort = SortCatalogue.USERS.resolve(sortBy, sortDir);
+        Window<User> users = userRepository.findAllBy(
+            KeysetCursor.decode(cursor, User.class), sort, Limit.of(size));
+        return CursorPageDTO.of(users, this::toUserDTO, includeTotal ? userRepository.count() : null);
     }
     
     /**
@@ -130,15 +171,26 @@ public class AdminService {
      */
     @Transactional(readOnly = true)
     public Page<SubscriptionDTO> getAllSubscriptions(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") 
-            ? Sort.by(sortBy).descending() 
-            : Sort.by(sortBy).ascending();
+        Sort sort = SortCatalogue.SUBSCRIPTIONS.resolve(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
         // The @EntityGraph in repository will eagerly load the user
         return subscriptionRepository.findAll(pageable)
                 .map(this::toSubscriptionDTO);
     }
+
+    /**
+     * Get subscriptions with keyset pagination (see {@link #getUsersByCursor}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SubscriptionDTO> getSubscriptionsByCursor(String cursor, int size, String sortBy,
+                                                                   String sortDir, boolean includeTotal) {
+        Sort sort = SortCatalogue.SUBSCRIPTIONS.resolve(sortBy, sortDir);
+        Window<Subscription> subscriptions = subscriptionRepository.findAllBy(
+            KeysetCursor.decode(cursor, Subscription.class), sort, Limit.of(size));
+        return CursorPageDTO.of(subscriptions, this::toSubscriptionDTO,
+            includeTotal ? subscriptionRepository.count() : null);
+    }
     
     /**
      * Get subscription by ID
@@ -187,68 +239,30 @@ public class AdminService {
      * Get dashboard statistics
      */
     public DashboardStatsDTO getDashboardStats() {
-        long totalUsers = userRepository.count();
-        long activeSubscriptions = subscriptionRepository.countByStatus(Subscription.SubscriptionStatus.ACTIVE);
-        long freeUsers = userRepository.countByUserTier(User.UserTier.FREE);
-        long premiumUsers = userRepository.countByUserTier(User.UserTier.PREMIUM);
-        long enterpriseUsers = userRepository.countByUserTier(User.UserTier.ENTERPRISE);
-        long activeUsers = userRepository.countByIsActive(true);
-        long verifiedUsers = userRepository.countByEmailVerified(true);
-
-        List<User> users = userRepository.findAll();
-        List<Subscription> subscriptions = subscriptionRepository.findAll();
-        List<Device> devices = deviceRepository.findAll();
-
-        Map<YearMonth, long[]> monthlyUserCounts = new HashMap<>();
-        Map<LocalDate, long[]> dailyUserCounts = new HashMap<>();
-
-        for (User user : users) {
-            if (user.getCreatedAt() == null || user.getUserTier() == null) {
-                continue;
-            }
-            YearMonth month = YearMonth.from(user.getCreatedAt());
-            LocalDate day = user.getCreatedAt().toLocalDate();
-            int tierIndex = getTierIndex(user.getUserTier());
-
-            monthlyUserCounts.computeIfAbsent(month, key -> new long[3])[tierIndex]++;
-            dailyUserCounts.computeIfAbsent(day, key -> new long[3])[tierIndex]++;
-        }
-
-        Map<YearMonth, Long> monthlyIncomeTotals = new HashMap<>();
-        Map<LocalDate, Long> dailyIncomeTotals = new HashMap<>();
-        Map<Subscription.SubscriptionStatus, Long> subscriptionStatusTotals = new EnumMap<>(Subscription.SubscriptionStatus.class);
-
-        long totalRevenue = 0;
-        for (Subscription subscription : subscriptions) {
-            long amount = getPlanAmount(subscription.getPlanType());
-            totalRevenue += amount;
+        YearMonth currentMonth = YearMonth.now();
+        LocalDate today = LocalDate.now();
+        LocalDateTime monthlySince = currentMonth.minusMonths(11).atDay(1).atStartOfDay();
+        LocalDateTime dailySince = today.minusDays(29).atStartOfDay();
 
-            if (subscription.getStartDate() != null) {
-                YearMonth month = YearMonth.from(subscription.getStartDate());
-                LocalDate day = subscription.getStartDate().toLocalDate();
-                monthlyIncomeTotals.merge(month, amount, Long::sum);
-                dailyIncomeTotals.merge(day, amount, Long::sum);
-            }
+        // The headline counters and every chart series are independent reads, so they are
+        // issued concurrently and the DB wall time is roughly that of the slowest query.
+        CompletableFuture<UserRepository.DashboardCounters> countersFuture =
+                supplyAsync(userRepository::findDashboardCounters);
 
-            if (subscription.getStatus() != null) {
-                subscriptionStatusTotals.merge(subscription.getStatus(), 1L, Long::sum);
-            }
-        }
-
-        Map<String, Long> deviceTypeCounts = new HashMap<>();
-        for (Device device : devices) {
-            String type = resolveDeviceType(device.getUserAgent());
-            deviceTypeCounts.merge(type, 1L, Long::sum);
-        }
+        // Precomputed daily rollups once the scheduler has built them; live GROUP BY
+        // queries until then (fresh database, or rollups disabled).
+        DashboardSeries series = dashboardRollupService.isReady()
+                ? loadRollupSeries(monthlySince.toLocalDate(), dailySince.toLocalDate())
+                : loadLiveSeries(monthlySince, dailySince);
+        UserRepository.DashboardCounters counters = join(countersFuture);
 
         DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("MMM yyyy");
         List<MonthlyIncomeDTO> monthlyIncome = new ArrayList<>();
         List<MonthlyUserRegistrationsDTO> monthlyUserRegistrations = new ArrayList<>();
-        YearMonth currentMonth = YearMonth.now();
         for (int i = 11; i >= 0; i--) {
             YearMonth month = currentMonth.minusMonths(i);
-            long income = monthlyIncomeTotals.getOrDefault(month, 0L);
-            long[] counts = monthlyUserCounts.getOrDefault(month, new long[3]);
+            long income = series.monthlyIncomeTotals.getOrDefault(month, 0L);
+            long[] counts = series.monthlyUserCounts.getOrDefault(month, new long[3]);
             monthlyIncome.add(new MonthlyIncomeDTO(monthFormatter.format(month.atDay(1)), income));
             monthlyUserRegistrations.add(new MonthlyUserRegistrationsDTO(
                     monthFormatter.format(month.atDay(1)),
@@ -260,11 +274,10 @@ public class AdminService {
 
         List<DailyIncomeDTO> dailyIncome = new ArrayList<>();
         List<DailyUserRegistrationsDTO> dailyUserRegistrations = new ArrayList<>();
-        LocalDate today = LocalDate.now();
         for (int i = 29; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
-            long income = dailyIncomeTotals.getOrDefault(date, 0L);
-            long[] counts = dailyUserCounts.getOrDefault(date, new long[3]);
+            long income = series.dailyIncomeTotals.getOrDefault(date, 0L);
+            long[] counts = series.dailyUserCounts.getOrDefault(date, new long[3]);
             dailyIncome.add(new DailyIncomeDTO(date.toString(), income));
             dailyUserRegistrations.add(new DailyUserRegistrationsDTO(
                     date.toString(),
@@ -275,29 +288,27 @@ public class AdminService {
         }
 
         List<DeviceTypeStatDTO> deviceTypeStats = List.of(
-                new DeviceTypeStatDTO("Desktop", deviceTypeCounts.getOrDefault("Desktop", 0L)),
-                new DeviceTypeStatDTO("Mobile", deviceTypeCounts.getOrDefault("Mobile", 0L)),
-                new DeviceTypeStatDTO("Tablet", deviceTypeCounts.getOrDefault("Tablet", 0L))
+                new DeviceTypeStatDTO(DeviceClassifier.DESKTOP, series.deviceTypeCounts.getOrDefault(DeviceClassifier.DESKTOP, 0L)),
+                new DeviceTypeStatDTO(DeviceClassifier.MOBILE, series.deviceTypeCounts.getOrDefault(DeviceClassifier.MOBILE, 0L)),
+                new DeviceTypeStatDTO(DeviceClassifier.TABLET, series.deviceTypeCounts.getOrDefault(DeviceClassifier.TABLET, 0L))
         );
 
         List<SubscriptionStatusStatDTO> subscriptionStatusStats = List.of(
-                new SubscriptionStatusStatDTO("ACTIVE", subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.ACTIVE, 0L)),
-                new SubscriptionStatusStatDTO("CANCELLED", subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.CANCELLED, 0L)),
-                new SubscriptionStatusStatDTO("EXPIRED", subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.EXPIRED, 0L))
+                new SubscriptionStatusStatDTO("ACTIVE", series.subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.ACTIVE, 0L)),
+                new SubscriptionStatusStatDTO("CANCELLED", series.subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.CANCELLED, 0L)),
+                new SubscriptionStatusStatDTO("EXPIRED", series.subscriptionStatusTotals.getOrDefault(Subscription.SubscriptionStatus.EXPIRED, 0L))
         );
 
-        long pendingRequests = analysisRequestRepository.countByStatus(AnalysisRequest.AnalysisRequestStatus.PENDING);
-
         return DashboardStatsDTO.builder()
-                .totalUsers(totalUsers)
-                .activeSubscriptions(activeSubscriptions)
-                .totalRevenue(totalRevenue)
-                .freeUsers(freeUsers)
-                .premiumUsers(premiumUsers)
-                .enterpriseUsers(enterpriseUsers)
-                .activeUsers(activeUsers)
-                .verifiedUsers(verifiedUsers)
-                .pendingAnalysisRequests(pendingRequests)
+                .totalUsers(counters.getTotalUsers())
+                .activeSubscriptions(counters.getActiveSubscriptions())
+                .totalRevenue(series.totalRevenue)
+                .freeUsers(counters.getFreeUsers())
+                .premiumUsers(counters.getPremiumUsers())
+                .enterpriseUsers(counters.getEnterpriseUsers())
+                .activeUsers(counters.getActiveUsers())
+                .verifiedUsers(counters.getVerifiedUsers())
+                .pendingAnalysisRequests(counters.getPendingAnalysisRequests())
                 .monthlyIncome(monthlyIncome)
                 .dailyIncome(dailyIncome)
                 .deviceTypeStats(deviceTypeStats)
@@ -307,11 +318,155 @@ public class AdminService {
                 .build();
     }
 
-    private int getTierIndex(User.UserTier tier) {
-        if (tier == User.UserTier.PREMIUM) {
+    /**
+     * Chart series grouped straight from the source tables. Bounded by the charted
+     * window (12 months / 30 days), so the cost tracks the number of buckets.
+     */
+    private DashboardSeries loadLiveSeries(LocalDateTime monthlySince, LocalDateTime dailySince) {
+        CompletableFuture<List<UserRepository.MonthlyTierCount>> monthlyUsers =
+                supplyAsync(() -> userRepository.findMonthlyRegistrationsByTier(monthlySince));
+        CompletableFuture<List<UserRepository.DailyTierCount>> dailyUsers =
+                supplyAsync(() -> userRepository.findDailyRegistrationsByTier(dailySince));
+        CompletableFuture<List<SubscriptionRepository.MonthlyPlanCount>> monthlyStarts =
+                supplyAsync(() -> subscriptionRepository.findMonthlyStartsByPlanType(monthlySince));
+        CompletableFuture<List<SubscriptionRepository.DailyPlanCount>> dailyStarts =
+                supplyAsync(() -> subscriptionRepository.findDailyStartsByPlanType(dailySince));
+        CompletableFuture<List<SubscriptionRepository.PlanTypeCount>> planTotals =
+                supplyAsync(subscriptionRepository::findPlanTypeCounts);
+        CompletableFuture<List<SubscriptionRepository.StatusCount>> statusTotals =
+                supplyAsync(subscriptionRepository::findStatusCounts);
+        CompletableFuture<List<DeviceRepository.DeviceTypeCount>> deviceTotals =
+                supplyAsync(deviceRepository::findDeviceTypeCounts);
+        CompletableFuture<List<DeviceRepository.UserAgentCount>> unclassifiedDevices =
+                supplyAsync(deviceRepository::findUnclassifiedUserAgentCounts);
+
+        DashboardSeries series = new DashboardSeries();
+        for (UserRepository.MonthlyTierCount row : join(monthlyUsers)) {
+            YearMonth month = YearMonth.parse(row.getMonth());
+            series.monthlyUserCounts.computeIfAbsent(month, key -> new long[3])[getTierIndex(row.getUserTier())] += row.getUserCount();
+        }
+
+        for (UserRepository.DailyTierCount row : join(dailyUsers)) {
+            LocalDate day = row.getDay().toLocalDate();
+            series.dailyUserCounts.computeIfAbsent(day, key -> new long[3])[getTierIndex(row.getUserTier())] += row.getUserCount();
+        }
+
+        for (SubscriptionRepository.MonthlyPlanCount row : join(monthlyStarts)) {
+            long amount = getPlanAmount(User.UserTier.valueOf(row.getPlanType())) * row.getSubscriptionCount();
+            series.monthlyIncomeTotals.merge(YearMonth.parse(row.getMonth()), amount, Long::sum);
+        }
+
+        for (SubscriptionRepository.DailyPlanCount row : join(dailyStarts)) {
+            long amount = getPlanAmount(User.UserTier.valueOf(row.getPlanType())) * row.getSubscriptionCount();
+            series.dailyIncomeTotals.merge(row.getDay().toLocalDate(), amount, Long::sum);
+        }
+
+        for (SubscriptionRepository.PlanTypeCount row : join(planTotals)) {
+            series.totalRevenue += getPlanAmount(row.getPlanType()) * row.getSubscriptionCount();
+        }
+
+        for (SubscriptionRepository.StatusCount row : join(statusTotals)) {
+            if (row.getStatus() != null) {
+                series.subscriptionStatusTotals.merge(row.getStatus(), row.getSubscriptionCount(), Long::sum);
+            }
+        }
+
+        for (DeviceRepository.DeviceTypeCount row : join(deviceTotals)) {
+            series.deviceTypeCounts.merge(row.getDeviceType(), row.getDeviceCount(), Long::sum);
+        }
+        // Devices inserted since the last classification run - normally a handful.
+        for (DeviceRepository.UserAgentCount row : join(unclassifiedDevices)) {
+            series.deviceTypeCounts.merge(deviceClassifier.classify(row.getUserAgent()), row.getDeviceCount(), Long::sum);
+        }
+        return series;
+    }
+
+    /**
+     * Chart series summed from dashboard_daily_rollups - a few rows per day regardless
+     * of how many users, subscriptions or devices exist.
+     */
+    private DashboardSeries loadRollupSeries(LocalDate monthlyFrom, LocalDate dailyFrom) {
+        CompletableFuture<List<DashboardDailyRollupRepository.MonthlyTotal>> monthlyUsers =
+                supplyAsync(() -> dashboardRollupService.getMonthlyTotals(DashboardDailyRollup.Metric.REGISTRATIONS, monthlyFrom));
+        CompletableFuture<List<DashboardDailyRollupRepository.DailyTotal>> dailyUsers =
+                supplyAsync(() -> dashboardRollupService.getDailyTotals(DashboardDailyRollup.Metric.REGISTRATIONS, dailyFrom));
+        CompletableFuture<List<DashboardDailyRollupRepository.MonthlyTotal>> monthlyStarts =
+                supplyAsync(() -> dashboardRollupService.getMonthlyTotals(DashboardDailyRollup.Metric.SUBSCRIPTION_STARTS, monthlyFrom));
+        CompletableFuture<List<DashboardDailyRollupRepository.DailyTotal>> dailyStarts =
+                supplyAsync(() -> dashboardRollupService.getDailyTotals(DashboardDailyRollup.Metric.SUBSCRIPTION_STARTS, dailyFrom));
+        CompletableFuture<List<DashboardDailyRollupRepository.DimensionTotal>> planTotals =
+                supplyAsync(() -> dashboardRollupService.getDimensionTotals(DashboardDailyRollup.Metric.SUBSCRIPTION_STARTS));
+        CompletableFuture<List<DashboardDailyRollupRepository.DimensionTotal>> statusTotals =
+                supplyAsync(() -> dashboardRollupService.getDimensionTotals(DashboardDailyRollup.Metric.SUBSCRIPTION_STATUS));
+        CompletableFuture<List<DashboardDailyRollupRepository.DimensionTotal>> deviceTotals =
+                supplyAsync(() -> dashboardRollupService.getDimensionTotals(DashboardDailyRollup.Metric.DEVICE_TYPES));
+
+        DashboardSeries series = new DashboardSeries();
+        for (DashboardDailyRollupRepository.MonthlyTotal row : join(monthlyUsers)) {
+            YearMonth month = YearMonth.parse(row.getMonth());
+            series.monthlyUserCounts.computeIfAbsent(month, key -> new long[3])[getTierIndex(row.getDimension())] += row.getTotal();
+        }
+        for (DashboardDailyRollupRepository.DailyTotal row : join(dailyUsers)) {
+            LocalDate day = row.getDay().toLocalDate();
+            series.dailyUserCounts.computeIfAbsent(day, key -> new long[3])[getTierIndex(row.getDimension())] += row.getTotal();
+        }
+        for (DashboardDailyRollupRepository.MonthlyTotal row : join(monthlyStarts)) {
+            long amount = getPlanAmount(User.UserTier.valueOf(row.getDimension())) * row.getTotal();
+            series.monthlyIncomeTotals.merge(YearMonth.parse(row.getMonth()), amount, Long::sum);
+        }
+        for (DashboardDailyRollupRepository.DailyTotal row : join(dailyStarts)) {
+            long amount = getPlanAmount(User.UserTier.valueOf(row.getDimension())) * row.getTotal();
+            series.dailyIncomeTotals.merge(row.getDay().toLocalDate(), amount, Long::sum);
+        }
+        for (DashboardDailyRollupRepository.DimensionTotal row : join(planTotals)) {
+            series.totalRevenue += getPlanAmount(User.UserTier.valueOf(row.getDimension())) * row.getTotal();
+        }
+        for (DashboardDailyRollupRepository.DimensionTotal row : join(statusTotals)) {
+            series.subscriptionStatusTotals.merge(
+                    Subscription.SubscriptionStatus.valueOf(row.getDimension()), row.getTotal(), Long::sum);
+        }
+        for (DashboardDailyRollupRepository.DimensionTotal row : join(deviceTotals)) {
+            series.deviceTypeCounts.merge(row.getDimension(), row.getTotal(), Long::sum);
+        }
+        return series;
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, dashboardQueryExecutor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdownDashboardQueryExecutor() {
+        dashboardQueryExecutor.shutdownNow();
+    }
+
+    private static class DashboardSeries {
+        private final Map<YearMonth, long[]> monthlyUserCounts = new HashMap<>();
+        private final Map<LocalDate, long[]> dailyUserCounts = new HashMap<>();
+        private final Map<YearMonth, Long> monthlyIncomeTotals = new HashMap<>();
+        private final Map<LocalDate, Long> dailyIncomeTotals = new HashMap<>();
+        private final Map<Subscription.SubscriptionStatus, Long> subscriptionStatusTotals =
+                new EnumMap<>(Subscription.SubscriptionStatus.class);
+        private final Map<String, Long> deviceTypeCounts = new HashMap<>();
+        private long totalRevenue;
+    }
+
+    private int getTierIndex(String tier) {
+        if (User.UserTier.PREMIUM.name().equals(tier)) {
             return 1;
         }
-        if (tier == User.UserTier.ENTERPRISE) {
+        if (User.UserTier.ENTERPRISE.name().equals(tier)) {
             return 2;
         }
         return 0;
@@ -327,32 +482,29 @@ public class AdminService {
         return 0;
     }
 
-    private String resolveDeviceType(String userAgent) {
-        if (userAgent == null) {
-            return "Desktop";
-        }
-        String ua = userAgent.toLowerCase();
-        if (ua.contains("ipad") || ua.contains("tablet")) {
-            return "Tablet";
-        }
-        if (ua.contains("mobi") || ua.contains("iphone") || ua.contains("android")) {
-            return "Mobile";
-        }
-        return "Desktop";
-    }
-    
     /**
      * Get all analysis requests with pagination
      */
     public Page<AnalysisRequestDTO> getAllAnalysisRequests(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") 
-            ? Sort.by(sortBy).descending() 
-            : Sort.by(sortBy).ascending();
+        Sort sort = SortCatalogue.ANALYSIS_REQUESTS.resolve(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return analysisRequestRepository.findAllByOrderByCreatedAtDesc(pageable)
+        return analysisRequestRepository.findAll(pageable)
                 .map(this::toAnalysisRequestDTO);
     }
+
+    /**
+     * Get analysis requests with keyset pagination (see {@link #getUsersByCursor}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AnalysisRequestDTO> getAnalysisRequestsByCursor(String cursor, int size, String sortBy,
+                                                                         String sortDir, boolean includeTotal) {
+        Sort sort = SortCatalogue.ANALYSIS_REQUESTS.resolve(sortBy, sortDir);
+        Window<AnalysisRequest> requests = analysisRequestRepository.findAllBy(
+            KeysetCursor.decode(cursor, AnalysisRequest.class), sort, Limit.of(size));
+        return CursorPageDTO.of(requests, this::toAnalysisRequestDTO,
+            includeTotal ? analysisRequestRepository.count() : null);
+    }
     
     /**
      * Get analysis request by ID
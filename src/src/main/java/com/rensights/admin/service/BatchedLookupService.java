@@ -0,0 +1,39 @@
+package com.rensights.admin.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs "WHERE id IN (:ids)" style lookups over arbitrarily many ids without
+ * building one huge IN-list: the ids are cut into batch-size chunks that run one
+ * after another on the caller's thread, in the caller's transaction.
+ */
+@Service
+public class BatchedLookupService {
+
+    private final int batchSize;
+
+    public BatchedLookupService(@Value("${lookup.batch-size:500}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public <K, V> List<V> lookup(Collection<K> keys, Function<List<K>, List<V>> query) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<K> all = new ArrayList<>(keys);
+        if (all.size() <= batchSize) {
+            return query.apply(all);
+        }
+        List<V> results = new ArrayList<>();
+        for (int start = 0; start < all.size(); start += batchSize) {
+            results.addAll(query.apply(all.subList(start, Math.min(start + batchSize, all.size()))));
+        }
+        return results;
+    }
+}
@@ -1,14 +1,19 @@
 package com.rensights.admin.service;
 
 import com.rensights.admin.dto.ActivityTimelineItemDTO;
+import com.rensights.admin.dto.CountStrategy;
+import com.rensights.admin.dto.CountedPage;
+import com.rensights.admin.dto.CursorPageDTO;
 import com.rensights.admin.dto.CustomerAnalyticsSummaryDTO;
 import com.rensights.admin.dto.CustomerGrowthPointDTO;
 import com.rensights.admin.dto.CustomerLoginStatDTO;
 import com.rensights.admin.dto.DailyActiveUsersPointDTO;
 import com.rensights.admin.dto.EventTypeStatDTO;
+import com.rensights.admin.dto.Granularity;
 import com.rensights.admin.dto.LoginEventDTO;
 import com.rensights.admin.dto.MonthlyActiveUsersPointDTO;
 import com.rensights.admin.dto.PageViewStatDTO;
+import com.rensights.admin.dto.TimeSeriesPoint;
 import com.rensights.admin.dto.UserLoginSummaryDTO;
 import com.rensights.admin.model.ActivityEvent;
 import com.rensights.admin.model.LoginEvent;
@@ -16,41 +21,101 @@ import com.rensights.admin.model.User;
 import com.rensights.admin.repository.ActivityEventRepository;
 import com.rensights.admin.repository.LoginEventRepository;
 import com.rensights.admin.repository.UserRepository;
+import com.rensights.admin.util.KeysetCursor;
+import com.rensights.admin.util.TimeSeriesQuery;
 import lombok.RequiredArgsConstructor;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerAnalyticsService {
 
+    private static final Schema LOGIN_STATS_SCHEMA = loadSchema("/avro/customer_login_stat.avsc");
+    private static final Schema EVENT_SCHEMA = loadSchema("/avro/customer_event.avsc");
+    private static final int AVRO_DEFLATE_LEVEL = 6;
+    private static final int AVRO_BLOCK_SIZE = 1024 * 1024;
+    private static final int TOP_PAGE_VIEWS = 20;
+
+    private static final TimeSeriesQuery ACTIVE_USERS =
+        TimeSeriesQuery.countDistinct("login_events", "logged_in_at", "user_id");
+    private static final TimeSeriesQuery SEALED_DAILY_ACTIVE_USERS =
+        TimeSeriesQuery.sum("active_user_sketches", "CAST(period_start AS timestamp)", "distinct_users")
+            .where("granularity = 'DAY'");
+    private static final TimeSeriesQuery NEW_CUSTOMERS = TimeSeriesQuery.count("users", "created_at");
+
+    // Upper bound for the first timeline page: later than any real (occurred_at, id).
+    private static final LocalDateTime TIMELINE_HEAD_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final UUID TIMELINE_HEAD_ID = new UUID(-1L, -1L);
+    public static final int MAX_TIMELINE_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
     private final LoginEventRepository loginEventRepository;
     private final ActivityEventRepository activityEventRepository;
+    private final PageCountService pageCountService;
+    private final ActiveUserSketchService activeUserSketchService;
+    private final ActivityCounterService activityCounterService;
+    private final PresenceTracker presenceTracker;
+    private final UserLoginStatsService userLoginStatsService;
+    private final TimeSeriesService timeSeriesService;
 
+    /**
+     * DAU/MAU come from the active-user sketches (MAU is an estimate within about 1%);
+     * {@code exact} counts login_events directly instead, which is slower.
+     */
     @Transactional(readOnly = true)
-    public CustomerAnalyticsSummaryDTO getSummary() {
+    public CustomerAnalyticsSummaryDTO getSummary(boolean exact) {
         LocalDateTime now = LocalDateTime.now();
-        long dau = loginEventRepository.countDistinctUsersSince(now.minusHours(24));
-        long mau = loginEventRepository.countDistinctUsersSince(now.minusDays(30));
+        long dau = exact
+            ? loginEventRepository.countDistinctUsersSince(now.minusHours(24))
+            : activeUserSketchService.countDistinctUsers(now.minusHours(24), now);
+        long mau = exact
+            ? loginEventRepository.countDistinctUsersSince(now.minusDays(30))
+            : activeUserSketchService.countDistinctUsers(now.minusDays(30), now);
         long totalUsers = userRepository.count();
         // Strict 5-minute presence window - no grace period for a missed heartbeat.
-        long activeNow = userRepository.countByLastSeenAtAfter(now.minusMinutes(5));
+        // Served from the in-memory tracker; the database count only until its first poll.
+        long activeNow = presenceTracker.activeNow()
+            .orElseGet(() -> userRepository.countByLastSeenAtAfter(now.minusMinutes(5)));
         return CustomerAnalyticsSummaryDTO.builder()
             .dailyActiveUsers(dau)
             .monthlyActiveUsers(mau)
@@ -59,207 +124,312 @@ public class CustomerAnalyticsService {
             .build();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Top 20 pages from the per-day activity counters. Windows of top-k.min-window-days
+     * or more merge monthly Space-Saving summaries, so their counts can be slight
+     * overestimates.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<PageViewStatDTO> getPageViewStats(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        return activityEventRepository.findTopPageViews(since).stream()
-            .map(row -> new PageViewStatDTO(row.getPagePath(), row.getViewCount()))
+        LocalDateTime now = LocalDateTime.now();
+        return activityCounterService.getTopPageViews(now.minusDays(days), now, TOP_PAGE_VIEWS).entrySet().stream()
+            .map(entry -> new PageViewStatDTO(entry.getKey(), entry.getValue()))
             .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<EventTypeStatDTO> getEventTypeBreakdown(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        return activityEventRepository.findEventTypeBreakdown(since).stream()
-            .map(row -> new EventTypeStatDTO(row.getEventType(), row.getEventCount()))
+        LocalDateTime now = LocalDateTime.now();
+        return activityCounterService.getEventTypeCounts(now.minusDays(days), now).entrySet().stream()
+            .map(entry -> new EventTypeStatDTO(entry.getKey(), entry.getValue()))
             .collect(Collectors.toList());
     }
 
     /**
      * Combined login + activity-event feed for one customer, newest first.
-     * Pulls a bounded recent window from each source and merges in memory -
-     * simple and correct for "recent activity" browsing, not built for deep
-     * pagination over a user's entire lifetime history.
+     * Keyset-paginated on (occurred_at, id): the cursor is the last item of the
+     * previous page, and both event tables are read from that point with a LIMIT,
+     * so page 500 costs the same as page 1. Sizes above MAX_TIMELINE_PAGE_SIZE are
+     * clamped; a size below 1 is an IllegalArgumentException.
      */
     @Transactional(readOnly = true)
-    public Page<ActivityTimelineItemDTO> getUserActivityTimeline(UUID userId, int page, int size) {
-        int fetchWindow = (page + 1) * size + 50;
-        List<LoginEvent> logins = loginEventRepository
-            .findByUserIdOrderByLoggedInAtDesc(userId, PageRequest.of(0, fetchWindow))
-            .getContent();
-        List<ActivityEvent> events = activityEventRepository
-            .findByUserIdOrderByOccurredAtDesc(userId, PageRequest.of(0, fetchWindow))
-            .getContent();
-
-        List<ActivityTimelineItemDTO> merged = new ArrayList<>();
-        for (LoginEvent login : logins) {
-            merged.add(ActivityTimelineItemDTO.builder()
-                .eventType("LOGIN")
-                .occurredAt(login.getLoggedInAt())
-                .metadata(login.getIpAddress())
-                .build());
+    public CursorPageDTO<ActivityTimelineItemDTO> getUserActivityTimeline(UUID userId, String cursor, int requestedSize) {
+        if (requestedSize < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
         }
-        for (ActivityEvent event : events) {
-            merged.add(ActivityTimelineItemDTO.builder()
-                .eventType(event.getEventType())
-                .pagePath(event.getPagePath())
-                .metadata(event.getMetadata())
-                .occurredAt(event.getOccurredAt())
-                .build());
+        int size = Math.min(requestedSize, MAX_TIMELINE_PAGE_SIZE);
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, ActivityEvent.class);
+        LocalDateTime beforeAt = TIMELINE_HEAD_AT;
+        UUID beforeId = TIMELINE_HEAD_ID;
+        if (!position.isInitial()) {
+            beforeAt = (LocalDateTime) position.getKeys().get("occurredAt");
+            beforeId = (UUID) position.getKeys().get("id");
+            if (beforeAt == null || beforeId == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
         }
-        merged.sort(Comparator.comparing(ActivityTimelineItemDTO::getOccurredAt).reversed());
 
-        int fromIndex = Math.min(page * size, merged.size());
-        int toIndex = Math.min(fromIndex + size, merged.size());
-        List<ActivityTimelineItemDTO> pageContent = merged.subList(fromIndex, toIndex);
+        List<ActivityEventRepository.TimelineRow> rows =
+            activityEventRepository.findTimelinePage(userId, beforeAt, beforeId, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ActivityEventRepository.TimelineRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        List<ActivityTimelineItemDTO> items = pageRows.stream()
+            .map(row -> ActivityTimelineItemDTO.builder()
+                .eventType(row.getEventType())
+                .pagePath(row.getPagePath())
+                .metadata(row.getMetadata())
+                .occurredAt(row.getOccurredAt().toLocalDateTime())
+                .build())
+            .collect(Collectors.toList());
 
-        return new PageImpl<>(pageContent, PageRequest.of(page, size), merged.size());
+        String nextCursor = null;
+        if (hasNext) {
+            ActivityEventRepository.TimelineRow last = pageRows.get(pageRows.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("occurredAt", last.getOccurredAt().toLocalDateTime());
+            keys.put("id", last.getId());
+            nextCursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+        }
+        return new CursorPageDTO<>(items, items.size(), hasNext, nextCursor, null);
     }
 
+    /**
+     * Distinct active users per bucket (DAU, or WAU/MAU-style for coarser buckets)
+     * since {@code days} days ago, dense from the database. Daily buckets in the
+     * storage zone read the sealed days' exact counts from the sketch table and
+     * only count login_events for the days after; {@code exact}, another zone or
+     * granularity count login_events throughout.
+     */
     @Transactional(readOnly = true)
-    public List<DailyActiveUsersPointDTO> getDailyTrend(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days).toLocalDate().atStartOfDay();
-        return loginEventRepository.findDailyActiveUserCounts(since).stream()
-            .map(row -> new DailyActiveUsersPointDTO(row.getDay().toLocalDate().toString(), row.getActiveUsers()))
+    public List<DailyActiveUsersPointDTO> getDailyTrend(int days, Granularity granularity, String tz, boolean exact) {
+        ZoneId zone = timeSeriesService.resolveZone(tz);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = storageTime(LocalDate.now(zone).minusDays(days).atStartOfDay(zone));
+
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        LocalDateTime rawFrom = since;
+        Optional<LocalDate> sealedThrough = activeUserSketchService.sealedThrough();
+        if (!exact && granularity == Granularity.DAY && zone.equals(timeSeriesService.storageZone())
+                && sealedThrough.isPresent() && !sealedThrough.get().isBefore(since.toLocalDate())) {
+            rawFrom = sealedThrough.get().plusDays(1).atStartOfDay();
+            points.addAll(timeSeriesService.fetch(SEALED_DAILY_ACTIVE_USERS, granularity, since, rawFrom, zone));
+        }
+        points.addAll(timeSeriesService.fetch(ACTIVE_USERS, granularity, rawFrom, now, zone));
+        return points.stream()
+            .map(point -> new DailyActiveUsersPointDTO(granularity.label(point.getBucket()), point.getValue()))
             .collect(Collectors.toList());
     }
 
     /**
-     * Distinct active users per calendar month over the last {@code months} months,
-     * gap-filled with zeros so the chart is continuous.
+     * Distinct active users per calendar month over the last {@code months} months.
+     * Estimated from the monthly sketches in the storage zone; {@code exact} or
+     * another zone counts login_events per month.
      */
     @Transactional(readOnly = true)
-    public List<MonthlyActiveUsersPointDTO> getMonthlyActiveTrend(int months) {
-        LocalDateTime since = firstOfMonthWindow(months);
-        Map<String, Long> byMonth = loginEventRepository.findMonthlyActiveUserCounts(since).stream()
-            .collect(Collectors.toMap(
-                LoginEventRepository.MonthlyActiveCount::getMonth,
-                LoginEventRepository.MonthlyActiveCount::getActiveUsers));
-
-        List<MonthlyActiveUsersPointDTO> result = new ArrayList<>();
-        for (YearMonth ym = YearMonth.from(since); !ym.isAfter(YearMonth.now()); ym = ym.plusMonths(1)) {
-            String key = ym.toString(); // "YYYY-MM"
-            result.add(new MonthlyActiveUsersPointDTO(key, byMonth.getOrDefault(key, 0L)));
+    public List<MonthlyActiveUsersPointDTO> getMonthlyActiveTrend(int months, String tz, boolean exact) {
+        ZoneId zone = timeSeriesService.resolveZone(tz);
+        LocalDateTime since = storageTime(firstOfMonthWindow(months, zone));
+        if (!exact && zone.equals(timeSeriesService.storageZone())) {
+            return activeUserSketchService.getMonthlyCounts(YearMonth.from(since)).entrySet().stream()
+                .map(entry -> new MonthlyActiveUsersPointDTO(entry.getKey().toString(), entry.getValue()))
+                .collect(Collectors.toList());
         }
-        return result;
+        return timeSeriesService.fetch(ACTIVE_USERS, Granularity.MONTH, since, LocalDateTime.now(), zone).stream()
+            .map(point -> new MonthlyActiveUsersPointDTO(Granularity.MONTH.label(point.getBucket()), point.getValue()))
+            .collect(Collectors.toList());
     }
 
     /**
-     * New customers per calendar month plus the running all-time total (cumulative
-     * seeded with everyone who signed up before the window). Gap-filled with zeros.
+     * New customers per bucket since the start of the month {@code months} months
+     * back, plus the running all-time total (seeded with everyone who signed up
+     * before the window).
      */
     @Transactional(readOnly = true)
-    public List<CustomerGrowthPointDTO> getCustomerGrowthTrend(int months) {
-        LocalDateTime since = firstOfMonthWindow(months);
-        Map<String, Long> newByMonth = userRepository.findMonthlyNewUserCounts(since).stream()
-            .collect(Collectors.toMap(
-                UserRepository.MonthlyNewCount::getMonth,
-                UserRepository.MonthlyNewCount::getNewCustomers));
-
-        long cumulative = userRepository.countByCreatedAtBefore(since);
-        List<CustomerGrowthPointDTO> result = new ArrayList<>();
-        for (YearMonth ym = YearMonth.from(since); !ym.isAfter(YearMonth.now()); ym = ym.plusMonths(1)) {
-            long added = newByMonth.getOrDefault(ym.toString(), 0L);
-            cumulative += added;
-            result.add(new CustomerGrowthPointDTO(ym.toString(), added, cumulative));
-        }
-        return result;
+    public List<CustomerGrowthPointDTO> getCustomerGrowthTrend(int months, Granularity granularity, String tz) {
+        ZoneId zone = timeSeriesService.resolveZone(tz);
+        LocalDateTime since = storageTime(firstOfMonthWindow(months, zone));
+        long before = userRepository.countByCreatedAtBefore(since);
+        return timeSeriesService.fetch(NEW_CUSTOMERS, granularity, since, LocalDateTime.now(), zone).stream()
+            .map(point -> new CustomerGrowthPointDTO(
+                granularity.label(point.getBucket()), point.getValue(), before + point.getRunningTotal()))
+            .collect(Collectors.toList());
     }
 
-    /** Full per-customer login stats as CSV (all users, unpaginated) for aggregate analysis. */
+    /**
+     * Full per-customer login stats as CSV (all users, unpaginated) for aggregate analysis.
+     * Rows are written to {@code out} as they come off a server-side cursor, so memory
+     * stays flat however many customers there are. The transaction (and its connection)
+     * stays open until the last row is written.
+     */
     @Transactional(readOnly = true)
-    public String buildCustomerLoginStatsCsv() {
-        List<User> users = userRepository.findAll(Sort.by("createdAt").descending());
-        List<UUID> ids = users.stream().map(User::getId).collect(Collectors.toList());
-        Map<UUID, LoginEventRepository.UserLoginStat> statsByUser = ids.isEmpty()
-            ? Map.of()
-            : loginEventRepository.findLoginStatsForUsers(ids).stream()
-                .collect(Collectors.toMap(LoginEventRepository.UserLoginStat::getUserId, s -> s));
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("userId,email,firstName,lastName,tier,createdAt,loginCount,lastLoginAt\n");
-        for (User u : users) {
-            LoginEventRepository.UserLoginStat stat = statsByUser.get(u.getId());
-            long loginCount = stat != null ? stat.getLoginCount() : 0L;
-            String lastLogin = stat != null && stat.getLastLoginAt() != null
-                ? stat.getLastLoginAt().toLocalDateTime().toString() : "";
-            sb.append(csv(u.getId().toString())).append(',')
-              .append(csv(u.getEmail())).append(',')
-              .append(csv(u.getFirstName())).append(',')
-              .append(csv(u.getLastName())).append(',')
-              .append(csv(u.getUserTier() != null ? u.getUserTier().name() : "")).append(',')
-              .append(csv(u.getCreatedAt() != null ? u.getCreatedAt().toString() : "")).append(',')
-              .append(loginCount).append(',')
-              .append(csv(lastLogin)).append('\n');
+    public void writeCustomerLoginStatsCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("userId,email,firstName,lastName,tier,createdAt,loginCount,lastLoginAt\n");
+        try (Stream<UserRepository.CustomerLoginStatRow> rows = streamCustomerLoginStats()) {
+            Iterator<UserRepository.CustomerLoginStatRow> it = rows.iterator();
+            while (it.hasNext()) {
+                UserRepository.CustomerLoginStatRow row = it.next();
+                writeCsvRow(writer,
+                    row.getUserId().toString(),
+                    row.getEmail(),
+                    row.getFirstName(),
+                    row.getLastName(),
+                    row.getUserTier(),
+                    timestamp(row.getCreatedAt()),
+                    String.valueOf(row.getLoginCount() != null ? row.getLoginCount() : 0L),
+                    timestamp(row.getLastLoginAt()));
+            }
         }
-        return sb.toString();
+        writer.flush();
     }
 
     /**
      * One flat CSV of EVERYTHING: every login and every activity event across all
      * customers, one row per event, with the owning customer's details on each row
      * so it's clear who it belongs to. Rows are grouped by customer email then time.
+     *
+     * The grouping is done by the database (ORDER BY over a UNION ALL of both event
+     * tables) and rows are streamed to {@code out} from a server-side cursor, so heap
+     * use does not grow with the event tables.
+     */
+    @Transactional(readOnly = true)
+    public void writeFullExportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("userId,email,firstName,lastName,tier,userCreatedAt,"
+            + "eventCategory,eventType,occurredAt,ipAddress,pagePath,metadata\n");
+        try (Stream<ActivityEventRepository.FullExportRow> rows = activityEventRepository.streamFullExport()) {
+            Iterator<ActivityEventRepository.FullExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                ActivityEventRepository.FullExportRow row = it.next();
+                writeCsvRow(writer,
+                    row.getUserId() != null ? row.getUserId().toString() : "",
+                    row.getEmail(),
+                    row.getFirstName(),
+                    row.getLastName(),
+                    row.getUserTier(),
+                    timestamp(row.getUserCreatedAt()),
+                    row.getEventCategory(),
+                    row.getEventType(),
+                    timestamp(row.getOccurredAt()),
+                    row.getIpAddress(),
+                    row.getPagePath(),
+                    row.getMetadata());
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Avro variant of {@link #writeCustomerLoginStatsCsv}: a container file with the
+     * CustomerLoginStat schema (resources/avro/customer_login_stat.avsc).
      */
     @Transactional(readOnly = true)
-    public String buildFullExportCsv() {
-        Map<UUID, User> usersById = userRepository.findAll().stream()
-            .collect(Collectors.toMap(User::getId, u -> u, (a, b) -> a));
+    public void writeCustomerLoginStatsAvro(OutputStream out) throws IOException {
+        try (Stream<UserRepository.CustomerLoginStatRow> rows = streamCustomerLoginStats()) {
+            writeAvro(out, LOGIN_STATS_SCHEMA, rows.iterator(), row -> {
+                GenericRecord record = new GenericData.Record(LOGIN_STATS_SCHEMA);
+                record.put("userId", row.getUserId().toString());
+                record.put("email", row.getEmail());
+                record.put("firstName", row.getFirstName());
+                record.put("lastName", row.getLastName());
+                record.put("tier", row.getUserTier());
+                record.put("createdAt", localMillis(row.getCreatedAt()));
+                record.put("loginCount", row.getLoginCount() != null ? row.getLoginCount() : 0L);
+                record.put("lastLoginAt", localMillis(row.getLastLoginAt()));
+                return record;
+            });
+        }
+    }
 
-        List<String[]> rows = new ArrayList<>();
+    /**
+     * Avro variant of {@link #writeFullExportCsv}: a container file with the
+     * CustomerEvent schema (resources/avro/customer_event.avsc), same row order.
+     */
+    @Transactional(readOnly = true)
+    public void writeFullExportAvro(OutputStream out) throws IOException {
+        Schema categorySchema = EVENT_SCHEMA.getField("eventCategory").schema();
+        try (Stream<ActivityEventRepository.FullExportRow> rows = activityEventRepository.streamFullExport()) {
+            writeAvro(out, EVENT_SCHEMA, rows.iterator(), row -> {
+                GenericRecord record = new GenericData.Record(EVENT_SCHEMA);
+                record.put("userId", row.getUserId() != null ? row.getUserId().toString() : null);
+                record.put("email", row.getEmail());
+                record.put("firstName", row.getFirstName());
+                record.put("lastName", row.getLastName());
+                record.put("tier", row.getUserTier());
+                record.put("userCreatedAt", localMillis(row.getUserCreatedAt()));
+                record.put("eventCategory", new GenericData.EnumSymbol(categorySchema, row.getEventCategory()));
+                record.put("eventType", row.getEventType());
+                record.put("occurredAt", localMillis(row.getOccurredAt()));
+                record.put("ipAddress", row.getIpAddress());
+                record.put("pagePath", row.getPagePath());
+                record.put("metadata", row.getMetadata());
+                return record;
+            });
+        }
+    }
 
-        for (LoginEvent e : loginEventRepository.findAll()) {
-            User u = usersById.get(e.getUserId());
-            rows.add(eventRow(u, e.getUserId(), "LOGIN", "LOGIN",
-                e.getLoggedInAt(), e.getIpAddress(), "", ""));
+    /**
+     * Appends records to a deflate-compressed Avro container file. DataFileWriter
+     * emits a compressed block whenever AVRO_BLOCK_SIZE bytes have accumulated, so
+     * only one block is ever held in memory.
+     */
+    private static <T> void writeAvro(OutputStream out, Schema schema, Iterator<T> rows,
+                                      Function<T, GenericRecord> toRecord) throws IOException {
+        DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+        writer.setCodec(CodecFactory.deflateCodec(AVRO_DEFLATE_LEVEL));
+        writer.setSyncInterval(AVRO_BLOCK_SIZE);
+        writer.create(schema, out);
+        while (rows.hasNext()) {
+            writer.append(toRecord.apply(rows.next()));
         }
-        for (ActivityEvent e : activityEventRepository.findAll()) {
-            User u = usersById.get(e.getUserId());
-            rows.add(eventRow(u, e.getUserId(), "ACTIVITY",
-                e.getEventType() != null ? e.getEventType() : "",
-                e.getOccurredAt(), "", e.getPagePath(), e.getMetadata()));
+        // flush() rather than close(): the caller owns the underlying stream.
+        writer.flush();
+    }
+
+    private static Long localMillis(java.sql.Timestamp value) {
+        return value != null ? value.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    private static Schema loadSchema(String resource) {
+        try (InputStream in = CustomerAnalyticsService.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing Avro schema " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        // Group by customer (email), then chronological within each customer.
-        rows.sort(Comparator
-            .comparing((String[] r) -> r[1])
-            .thenComparing(r -> r[8]));
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("userId,email,firstName,lastName,tier,userCreatedAt,")
-          .append("eventCategory,eventType,occurredAt,ipAddress,pagePath,metadata\n");
-        for (String[] r : rows) {
-            for (int i = 0; i < r.length; i++) {
-                if (i > 0) {
-                    sb.append(',');
-                }
-                sb.append(csv(r[i]));
+    private static void writeCsvRow(Writer writer, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
             }
-            sb.append('\n');
+            writer.write(csv(fields[i]));
         }
-        return sb.toString();
+        writer.write('\n');
     }
 
-    private static String[] eventRow(User u, UUID userId, String category, String type,
-                                     LocalDateTime occurredAt, String ip, String pagePath, String metadata) {
-        return new String[] {
-            userId != null ? userId.toString() : "",
-            u != null && u.getEmail() != null ? u.getEmail() : "",
-            u != null && u.getFirstName() != null ? u.getFirstName() : "",
-            u != null && u.getLastName() != null ? u.getLastName() : "",
-            u != null && u.getUserTier() != null ? u.getUserTier().name() : "",
-            u != null && u.getCreatedAt() != null ? u.getCreatedAt().toString() : "",
-            category,
-            type,
-            occurredAt != null ? occurredAt.toString() : "",
-            ip != null ? ip : "",
-            pagePath != null ? pagePath : "",
-            metadata != null ? metadata : "",
-        };
+    private static String timestamp(java.sql.Timestamp value) {
+        return value != null ? value.toLocalDateTime().toString() : "";
     }
 
-    private static LocalDateTime firstOfMonthWindow(int months) {
+    private static ZonedDateTime firstOfMonthWindow(int months, ZoneId zone) {
         int span = Math.max(1, months);
-        return LocalDate.now().withDayOfMonth(1).minusMonths(span - 1L).atStartOfDay();
+        return LocalDate.now(zone).withDayOfMonth(1).minusMonths(span - 1L).atStartOfDay(zone);
+    }
+
+    private LocalDateTime storageTime(ZonedDateTime time) {
+        return time.withZoneSameInstant(timeSeriesService.storageZone()).toLocalDateTime();
+    }
+
+    /** From user_login_stats once it has been built, otherwise by grouping login_events. */
+    private Stream<UserRepository.CustomerLoginStatRow> streamCustomerLoginStats() {
+        return userLoginStatsService.completeThrough().isPresent()
+            ? userRepository.streamCustomerLoginStatsFromSummary(UserLoginStatsService.WATERMARK_KEY)
+            : userRepository.streamCustomerLoginStats();
     }
 
     /** Minimal RFC-4180 CSV field escaping. */
@@ -275,41 +445,38 @@ public class CustomerAnalyticsService {
     }
 
     @Transactional(readOnly = true)
-    public Page<CustomerLoginStatDTO> getCustomerLoginStats(int page, int size) {
+    public Page<CustomerLoginStatDTO> getCustomerLoginStats(int page, int size, CountStrategy countStrategy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<User> usersPage = userRepository.findAll(pageable);
+        Slice<User> usersPage = userRepository.findAllBy(pageable);
 
         List<UUID> userIds = usersPage.getContent().stream().map(User::getId).collect(Collectors.toList());
-        Map<UUID, LoginEventRepository.UserLoginStat> statsByUser = userIds.isEmpty()
-            ? Map.of()
-            : loginEventRepository.findLoginStatsForUsers(userIds).stream()
-                .collect(Collectors.toMap(LoginEventRepository.UserLoginStat::getUserId, s -> s));
+        Map<UUID, UserLoginStatsService.LoginTotals> statsByUser = userLoginStatsService.getLoginTotals(userIds);
 
         List<CustomerLoginStatDTO> dtos = usersPage.getContent().stream()
             .map(user -> {
-                LoginEventRepository.UserLoginStat stat = statsByUser.get(user.getId());
+                UserLoginStatsService.LoginTotals stat = statsByUser.get(user.getId());
                 return CustomerLoginStatDTO.builder()
                     .userId(user.getId().toString())
                     .email(user.getEmail())
                     .firstName(user.getFirstName())
                     .lastName(user.getLastName())
-                    .loginCount(stat != null ? stat.getLoginCount() : 0L)
-                    .lastLoginAt(stat != null && stat.getLastLoginAt() != null
-                        ? stat.getLastLoginAt().toLocalDateTime() : null)
+                    .loginCount(stat != null ? stat.loginCount() : 0L)
+                    .lastLoginAt(stat != null ? stat.lastLoginAt() : null)
                     .build();
             })
             .collect(Collectors.toList());
 
-        return new PageImpl<>(dtos, pageable, usersPage.getTotalElements());
+        PageCountService.Total total = pageCountService.count(countStrategy, "users",
+            userRepository::count, () -> pageCountService.estimateTableRows("users"));
+        return new CountedPage<>(dtos, pageable, total.value(), total.strategy());
     }
 
     @Transactional(readOnly = true)
     public UserLoginSummaryDTO getUserLoginSummary(UUID userId) {
-        long count = loginEventRepository.countByUserId(userId);
-        LocalDateTime lastLogin = loginEventRepository.findFirstByUserIdOrderByLoggedInAtDesc(userId)
-            .map(LoginEvent::getLoggedInAt)
-            .orElse(null);
-        return new UserLoginSummaryDTO(count, lastLogin);
+        UserLoginStatsService.LoginTotals totals = userLoginStatsService.getLoginTotals(List.of(userId)).get(userId);
+        return totals != null
+            ? new UserLoginSummaryDTO(totals.loginCount(), totals.firstLoginAt(), totals.lastLoginAt(), totals.lastIp())
+            : new UserLoginSummaryDTO(0, null, null, null);
     }
 
     @Transactional(readOnly = true)
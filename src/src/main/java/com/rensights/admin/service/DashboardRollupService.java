@@ -0,0 +1,161 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.model.DashboardDailyRollup.Metric;
+import com.rensights.admin.repository.DashboardDailyRollupRepository;
+import com.rensights.admin.service.JobCoordinator.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps dashboard_daily_rollups in step with users, subscriptions and devices so
+ * the dashboard reads a few hundred precomputed rows instead of grouping the
+ * source tables on every request.
+ *
+ * Each incremental run looks only at rows whose updated_at is past the stored
+ * watermark, collects the bucket days they fall on, and rebuilds just those days.
+ * Rebuilding a day is delete + re-aggregate, so overlapping runs are harmless.
+ * Hard deletes are invisible to updated_at, which is what the nightly full
+ * rebuild is for.
+ */
+@Service
+public class DashboardRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardRollupService.class);
+
+    public static final String WATERMARK_KEY = "dashboardRollup.watermark";
+
+    // Re-scan a short overlap behind the watermark so rows committed just after the
+    // previous run read updated_at are not skipped.
+    private static final long WATERMARK_OVERLAP_SECONDS = 60;
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final DashboardDailyRollupRepository rollupRepository;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${dashboard.rollup.enabled:true}")
+    private boolean enabled;
+
+    public DashboardRollupService(DashboardDailyRollupRepository rollupRepository,
+                                  JobCoordinator jobCoordinator) {
+        this.rollupRepository = rollupRepository;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    /**
+     * True once a full rebuild has completed, i.e. the rollup table can be trusted.
+     * Until then the dashboard falls back to live GROUP BY queries.
+     */
+    @Transactional(readOnly = true)
+    public boolean isReady() {
+        return enabled && readWatermark().isPresent();
+    }
+
+    @Scheduled(initialDelayString = "${dashboard.rollup.initial-delay-ms:60000}",
+               fixedDelayString = "${dashboard.rollup.refresh-interval-ms:300000}")
+    @Transactional
+    public void refreshIncremental() {
+        if (!enabled || !jobCoordinator.tryLock(Job.DASHBOARD_ROLLUP)) {
+            return;
+        }
+        LocalDateTime runStartedAt = LocalDateTime.now();
+        Optional<LocalDateTime> watermark = readWatermark();
+        if (watermark.isEmpty()) {
+            rebuildAllLocked(runStartedAt);
+            return;
+        }
+
+        LocalDateTime since = watermark.get();
+        int days = 0;
+        days += refreshDays(toDays(rollupRepository.findUserDaysChangedSince(since)), Metric.REGISTRATIONS);
+        SortedSet<LocalDate> subscriptionDays = toDays(rollupRepository.findSubscriptionDaysChangedSince(since));
+        days += refreshDays(subscriptionDays, Metric.SUBSCRIPTION_STARTS);
+        days += refreshDays(subscriptionDays, Metric.SUBSCRIPTION_STATUS);
+        days += refreshDays(toDays(rollupRepository.findDeviceDaysChangedSince(since)), Metric.DEVICE_TYPES);
+
+        writeWatermark(runStartedAt.minusSeconds(WATERMARK_OVERLAP_SECONDS));
+        if (days > 0) {
+            logger.debug("Dashboard rollups refreshed: {} metric-days rebuilt since {}", days, since);
+        }
+    }
+
+    @Scheduled(cron = "${dashboard.rollup.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        if (!enabled || !jobCoordinator.tryLock(Job.DASHBOARD_ROLLUP)) {
+            return;
+        }
+        rebuildAllLocked(LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DashboardDailyRollupRepository.MonthlyTotal> getMonthlyTotals(Metric metric, LocalDate fromDay) {
+        return rollupRepository.findMonthlyTotals(metric.name(), fromDay);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DashboardDailyRollupRepository.DailyTotal> getDailyTotals(Metric metric, LocalDate fromDay) {
+        return rollupRepository.findDailyTotals(metric.name(), fromDay);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DashboardDailyRollupRepository.DimensionTotal> getDimensionTotals(Metric metric) {
+        return rollupRepository.findDimensionTotals(metric.name());
+    }
+
+    private void rebuildAllLocked(LocalDateTime runStartedAt) {
+        long started = System.currentTimeMillis();
+        for (Metric metric : Metric.values()) {
+            rebuildRange(metric, BEGINNING, END);
+        }
+        writeWatermark(runStartedAt.minusSeconds(WATERMARK_OVERLAP_SECONDS));
+        logger.info("Dashboard rollups fully rebuilt in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private int refreshDays(SortedSet<LocalDate> days, Metric metric) {
+        for (LocalDate day : days) {
+            rebuildRange(metric, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        }
+        return days.size();
+    }
+
+    private void rebuildRange(Metric metric, LocalDateTime from, LocalDateTime to) {
+        rollupRepository.deleteRange(metric.name(), from.toLocalDate(), to.toLocalDate());
+        switch (metric) {
+            case REGISTRATIONS -> rollupRepository.insertRegistrations(from, to);
+            case SUBSCRIPTION_STARTS -> rollupRepository.insertSubscriptionStarts(from, to);
+            case SUBSCRIPTION_STATUS -> rollupRepository.insertSubscriptionStatuses(from, to);
+            case DEVICE_TYPES -> rollupRepository.insertDeviceTypes(from, to);
+        }
+    }
+
+    private static SortedSet<LocalDate> toDays(List<DashboardDailyRollupRepository.ChangedDay> rows) {
+        SortedSet<LocalDate> days = new TreeSet<>();
+        for (DashboardDailyRollupRepository.ChangedDay row : rows) {
+            if (row.getDay() != null) {
+                days.add(row.getDay().toLocalDate());
+            }
+        }
+        return days;
+    }
+
+    private Optional<LocalDateTime> readWatermark() {
+        return jobCoordinator.readWatermark(WATERMARK_KEY, LocalDateTime::parse);
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        jobCoordinator.writeWatermark(WATERMARK_KEY, watermark);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rensights.admin.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.rensights.admin.dto.DashboardStatsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stale-while-revalidate cache in front of {@link AdminService#getDashboardStats()}.
+ *
+ * - Younger than refresh-after: served from cache.
+ * - Between refresh-after and expire-after: the stale value is returned at once and a
+ *   single background reload replaces it.
+ * - Older than expire-after (or never loaded): the caller blocks on the load, and
+ *   concurrent callers wait on that same load rather than starting their own.
+ *
+ * Hit/miss counts are published as cache.* metrics (cache=dashboardStats); load and
+ * refresh durations as dashboard.stats.cache.load{type=load|refresh}.
+ */
+@Service
+public class DashboardStatsCacheService {
+
+    private static final String CACHE_NAME = "dashboardStats";
+    private static final String KEY = "dashboard";
+
+    private final ExecutorService refreshExecutor =
+        Executors.newSingleThreadExecutor(new CustomizableThreadFactory("dashboard-stats-refresh-"));
+
+    private final LoadingCache<String, DashboardStatsDTO> cache;
+
+    public DashboardStatsCacheService(AdminService adminService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${dashboard.stats.cache.refresh-after:60s}") Duration refreshAfter,
+                                      @Value("${dashboard.stats.cache.expire-after:15m}") Duration expireAfter) {
+        Timer loadTimer = loadTimer(meterRegistry, "load");
+        Timer refreshTimer = loadTimer(meterRegistry, "refresh");
+
+        this.cache = Caffeine.newBuilder()
+            .refreshAfterWrite(refreshAfter)
+            .expireAfterWrite(expireAfter)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build(new CacheLoader<String, DashboardStatsDTO>() {
+                @Override
+                public DashboardStatsDTO load(String key) {
+                    return loadTimer.record(adminService::getDashboardStats);
+                }
+
+                @Override
+                public DashboardStatsDTO reload(String key, DashboardStatsDTO oldValue) {
+                    return refreshTimer.record(adminService::getDashboardStats);
+                }
+            });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public DashboardStatsDTO getDashboardStats() {
+        return cache.get(KEY);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("dashboard.stats.cache.load")
+            .description("Time spent recomputing DashboardStatsDTO")
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,529 @@
+package com.rensights.admin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rensights.admin.dto.DealImportResultDTO;
+import com.rensights.admin.dto.DealImportResultDTO.RowError;
+import com.rensights.admin.model.Deal;
+import com.rensights.admin.service.JobCoordinator.Job;
+import com.rensights.admin.util.CsvRecordReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk deal ingestion: an NDJSON or CSV batch is validated row by row and streamed
+ * with COPY into a temp staging table, then moved into deals with one
+ * INSERT ... SELECT. Nothing goes through Hibernate, so a batch of tens of
+ * thousands of rows costs one COPY and one insert rather than a statement per deal.
+ *
+ * Rows are keyed on propertyId: within a batch the last row for a propertyId wins,
+ * and propertyIds already in deals are left alone. Imports take a transaction-level
+ * advisory lock so two batches can't both insert the same new propertyId; a
+ * second import arriving meanwhile is refused rather than queued. Invalid
+ * rows are reported with their line number and never reach the staging table, so
+ * one bad row doesn't fail the batch. A body over max-bytes or a line/record over
+ * max-record-chars fails the whole batch, so a malformed upload can't exhaust memory.
+ */
+@Service
+public class DealImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealImportService.class);
+
+    private static final int VARCHAR_LENGTH = 255;
+    private static final int MAX_INTEGER_DIGITS = 36;  // numeric(38,2)
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public enum Format {
+        NDJSON, CSV;
+
+        /** The format parameter if given, otherwise guessed from the Content-Type. */
+        public static Format from(String format, String contentType) {
+            if (format != null && !format.isBlank()) {
+                try {
+                    return valueOf(format.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown import format: " + format + " (expected ndjson or csv)");
+                }
+            }
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv") ? CSV : NDJSON;
+        }
+    }
+
+    private enum Kind { STRING, TEXT, DECIMAL, BUILDING_STATUS }
+
+    private record Column(String field, String name, Kind kind, boolean required) {}
+
+    // Importable deal columns; id, status, active, timestamps and approval are set by the import.
+    private static final List<Column> COLUMNS = List.of(
+        new Column("propertyId", "property_id", Kind.STRING, true),
+        new Column("name", "name", Kind.STRING, true),
+        new Column("location", "location", Kind.STRING, true),
+        new Column("city", "city", Kind.STRING, true),
+        new Column("area", "area", Kind.STRING, true),
+        new Column("bedrooms", "bedrooms", Kind.STRING, true),
+        new Column("bedroomCount", "bedroom_count", Kind.STRING, false),
+        new Column("size", "size", Kind.STRING, true),
+        new Column("listedPrice", "listed_price", Kind.STRING, true),
+        new Column("priceValue", "price_value", Kind.DECIMAL, true),
+        new Column("estimateMin", "estimate_min", Kind.DECIMAL, false),
+        new Column("estimateMax", "estimate_max", Kind.DECIMAL, false),
+        new Column("estimateRange", "estimate_range", Kind.STRING, false),
+        new Column("discount", "discount", Kind.STRING, false),
+        new Column("rentalYield", "rental_yield", Kind.STRING, false),
+        new Column("grossRentalYield", "gross_rental_yield", Kind.STRING, false),
+        new Column("buildingStatus", "building_status", Kind.BUILDING_STATUS, true),
+        new Column("propertyType", "property_type", Kind.STRING, false),
+        new Column("priceVsEstimations", "price_vs_estimations", Kind.STRING, false),
+        new Column("pricePerSqft", "price_per_sqft", Kind.DECIMAL, false),
+        new Column("pricePerSqftVsMarket", "price_per_sqft_vs_market", Kind.DECIMAL, false),
+        new Column("propertyDescription", "property_description", Kind.TEXT, false),
+        new Column("buildingFeatures", "building_features", Kind.TEXT, false),
+        new Column("serviceCharge", "service_charge", Kind.STRING, false),
+        new Column("developer", "developer", Kind.STRING, false),
+        new Column("propertyLink", "property_link", Kind.STRING, false));
+
+    private static final int PROPERTY_ID = 0;
+
+    // Accepts both the JSON field name and the column name, case-insensitively.
+    private static final Map<String, Integer> COLUMN_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMN_INDEX.put(COLUMNS.get(i).field().toLowerCase(Locale.ROOT), i);
+            COLUMN_INDEX.put(COLUMNS.get(i).name(), i);
+        }
+    }
+
+    private static final String COLUMN_LIST = COLUMNS.stream().map(Column::name).collect(Collectors.joining(", "));
+
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE deal_import_staging (line_no bigint NOT NULL, "
+        + COLUMNS.stream()
+            .map(c -> c.name() + (c.kind() == Kind.DECIMAL ? " numeric" : " text"))
+            .collect(Collectors.joining(", "))
+        + ") ON COMMIT DROP";
+
+    private static final String COPY_STAGING = "COPY deal_import_staging (line_no, " + COLUMN_LIST
+        + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_DEALS = "INSERT INTO deals (id, " + COLUMN_LIST
+        + ", status, active, batch_date, created_at, updated_at) "
+        + "SELECT gen_random_uuid(), " + COLUMN_LIST + ", 'PENDING', true, ?, ?, ? "
+        + "FROM (SELECT DISTINCT ON (property_id) * FROM deal_import_staging ORDER BY property_id, line_no DESC) s "
+        + "WHERE NOT EXISTS (SELECT 1 FROM deals d WHERE d.property_id = s.property_id)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${deals.import.max-rows:100000}")
+    private int maxRows;
+
+    @Value("${deals.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${deals.import.max-bytes:100MB}")
+    private DataSize maxBytes;
+
+    @Value("${deals.import.max-record-chars:262144}")
+    private int maxRecordChars;
+
+    public DealImportService(JobCoordinator jobCoordinator) {
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    /**
+     * Imports one batch. Every inserted deal is PENDING and active with the given
+     * batch date (now if null). Malformed input as a whole (too many rows or bytes,
+     * an overlong line or record, a CSV header missing required columns, broken
+     * quoting) is an IllegalArgumentException and nothing is imported. An IllegalStateException
+     * means another import is running.
+     */
+    @Transactional
+    public DealImportResultDTO importDeals(InputStream body, Format format, LocalDateTime batchDate) {
+        if (!jobCoordinator.tryLock(Job.DEAL_IMPORT)) {
+            throw new IllegalStateException("Another deal import is in progress");
+        }
+        LocalDateTime effectiveBatchDate = batchDate != null ? batchDate : LocalDateTime.now();
+        return entityManager.unwrap(Session.class)
+            .doReturningWork(connection -> load(connection, body, format, effectiveBatchDate));
+    }
+
+    private DealImportResultDTO load(Connection connection, InputStream body, Format format,
+                                     LocalDateTime batchDate) throws SQLException {
+        long started = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        ImportRun run = new ImportRun(connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING));
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new LimitedInputStream(body, maxBytes.toBytes()), StandardCharsets.UTF_8));
+            // Spreadsheet exports often start with a UTF-8 byte order mark; it isn't part of the data.
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+            run.endCopy();
+        } catch (IOException e) {
+            run.cancelCopy();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | SQLException e) {
+            run.cancelCopy();
+            throw e;
+        }
+
+        long duplicates;
+        int inserted;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE deal_import_staging");
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT count(*) - count(DISTINCT property_id) FROM deal_import_staging")) {
+                rs.next();
+                duplicates = rs.getLong(1);
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_DEALS)) {
+            insert.setTimestamp(1, Timestamp.valueOf(batchDate));
+            insert.setTimestamp(2, now);
+            insert.setTimestamp(3, now);
+            inserted = insert.executeUpdate();
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Deal import ({}): {} rows, {} rejected, {} duplicates in batch, {} already present, {} inserted in {} ms",
+            format, run.received, run.rejected, duplicates, run.staged - duplicates - inserted, inserted, elapsed);
+        return DealImportResultDTO.builder()
+            .received(run.received)
+            .rejected(run.rejected)
+            .duplicatesInBatch(duplicates)
+            .skippedExisting(run.staged - duplicates - inserted)
+            .inserted(inserted)
+            .batchDate(batchDate)
+            .elapsedMs(elapsed)
+            .errors(run.errors)
+            .errorsTruncated(run.rejected > run.errors.size())
+            .build();
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException, SQLException {
+        long line = 0;
+        StringBuilder buffer = new StringBuilder();
+        String text;
+        while ((text = readLine(reader, buffer, line + 1)) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            run.countRow();
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(text);
+            } catch (JsonProcessingException e) {
+                run.reject(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!node.isObject()) {
+                run.reject(line, null, "Expected a JSON object");
+                continue;
+            }
+            String[] raw = new String[COLUMNS.size()];
+            List<String> problems = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                Integer index = COLUMN_INDEX.get(field.getKey().toLowerCase(Locale.ROOT));
+                if (index == null) {
+                    continue;
+                }
+                JsonNode value = field.getValue();
+                if (value.isNull()) {
+                    raw[index] = null;
+                } else if (value.isValueNode()) {
+                    raw[index] = value.asText();
+                } else if (COLUMNS.get(index).kind() == Kind.TEXT) {
+                    raw[index] = value.toString();  // e.g. buildingFeatures as a JSON array
+                } else {
+                    problems.add(COLUMNS.get(index).field() + " must be a scalar value");
+                }
+            }
+            run.stage(line, raw, problems);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException, SQLException {
+        CsvRecordReader csv = new CsvRecordReader(reader, maxRecordChars);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        int[] target = new int[header.size()];
+        boolean[] present = new boolean[COLUMNS.size()];
+        for (int i = 0; i < header.size(); i++) {
+            Integer index = COLUMN_INDEX.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+            target[i] = index != null ? index : -1;
+            if (index != null) {
+                present[index] = true;
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (COLUMNS.get(i).required() && !present[i]) {
+                missing.add(COLUMNS.get(i).field());
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing required columns: " + String.join(", ", missing));
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            run.countRow();
+            if (record.size() != header.size()) {
+                run.reject(csv.recordLine(), null,
+                    "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            String[] raw = new String[COLUMNS.size()];
+            for (int i = 0; i < record.size(); i++) {
+                if (target[i] >= 0) {
+                    raw[target[i]] = record.get(i);
+                }
+            }
+            run.stage(csv.recordLine(), raw, new ArrayList<>());
+        }
+    }
+
+    /** Like BufferedReader#readLine, but refuses lines longer than max-record-chars. */
+    private String readLine(BufferedReader reader, StringBuilder buffer, long line) throws IOException {
+        buffer.setLength(0);
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (buffer.length() >= maxRecordChars) {
+                throw new IllegalArgumentException("Line " + line + " is longer than " + maxRecordChars + " characters");
+            }
+            buffer.append((char) c);
+        }
+        if (c == -1 && buffer.length() == 0) {
+            return null;
+        }
+        int end = buffer.length();
+        if (end > 0 && buffer.charAt(end - 1) == '\r') {
+            buffer.setLength(end - 1);
+        }
+        return buffer.toString();
+    }
+
+    /** Validates and normalizes one field in place; returns the problem, or null if it is fine. */
+    private static String normalize(Column column, String[] values, int index) {
+        String value = values[index] != null ? values[index].trim() : null;
+        if (value == null || value.isEmpty()) {
+            values[index] = null;
+            return column.required() ? column.field() + " is required" : null;
+        }
+        if (value.indexOf('\0') >= 0) {
+            return column.field() + " contains a NUL character";
+        }
+        switch (column.kind()) {
+            case STRING -> {
+                if (value.length() > VARCHAR_LENGTH) {
+                    return column.field() + " is longer than " + VARCHAR_LENGTH + " characters";
+                }
+            }
+            case DECIMAL -> {
+                BigDecimal number;
+                try {
+                    number = new BigDecimal(value);
+                } catch (NumberFormatException e) {
+                    return column.field() + " is not a number: " + value;
+                }
+                if (number.precision() - number.scale() > MAX_INTEGER_DIGITS) {
+                    return column.field() + " is out of range";
+                }
+                value = number.toPlainString();
+            }
+            case BUILDING_STATUS -> {
+                try {
+                    value = Deal.BuildingStatus.valueOf(
+                        value.toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_')).name();
+                } catch (IllegalArgumentException e) {
+                    return column.field() + " must be READY or OFF_PLAN";
+                }
+            }
+            case TEXT -> { }
+        }
+        values[index] = value;
+        return null;
+    }
+
+    /** Fails the import once more than maxBytes have been read from the body. */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > maxBytes) {
+                throw new IllegalArgumentException("Request body exceeds the limit of " + maxBytes + " bytes");
+            }
+        }
+    }
+
+    /** Counters, reported errors and the COPY stream of one import. */
+    private final class ImportRun {
+
+        private final CopyIn copyIn;
+        private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(COPY_CHUNK_BYTES + 4096);
+        private final StringBuilder row = new StringBuilder();
+        private final List<RowError> errors = new ArrayList<>();
+        private long received;
+        private long rejected;
+        private long staged;
+
+        ImportRun(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        void countRow() {
+            if (++received > maxRows) {
+                throw new IllegalArgumentException("Batch exceeds the limit of " + maxRows + " rows");
+            }
+        }
+
+        void reject(long line, String propertyId, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, propertyId, message));
+            }
+        }
+
+        /** Validates a row and, if it passes, writes it to the COPY stream. */
+        void stage(long line, String[] values, List<String> problems) throws SQLException {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                String problem = normalize(COLUMNS.get(i), values, i);
+                if (problem != null) {
+                    problems.add(problem);
+                }
+            }
+            if (!problems.isEmpty()) {
+                reject(line, values[PROPERTY_ID], String.join("; ", problems));
+                return;
+            }
+
+            // Every value is quoted, so an unquoted empty field is unambiguously NULL.
+            row.setLength(0);
+            row.append(line);
+            for (String value : values) {
+                row.append(',');
+                if (value != null) {
+                    row.append('"').append(value.replace("\"", "\"\"")).append('"');
+                }
+            }
+            row.append('\n');
+            chunk.writeBytes(row.toString().getBytes(StandardCharsets.UTF_8));
+            staged++;
+            if (chunk.size() >= COPY_CHUNK_BYTES) {
+                flush();
+            }
+        }
+
+        void endCopy() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        void cancelCopy() {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not cancel deal import COPY: {}", e.getMessage());
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (chunk.size() > 0) {
+                copyIn.writeToCopy(chunk.toByteArray(), 0, chunk.size());
+                chunk.reset();
+            }
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.rensights.admin.service;
 
+import com.rensights.admin.dto.CountStrategy;
+import com.rensights.admin.dto.CountedPage;
+import com.rensights.admin.dto.CursorPageDTO;
 import com.rensights.admin.dto.DealDTO;
+import com.rensights.admin.dto.DealStatusDTO;
+import com.rensights.admin.dto.DealSummaryDTO;
 import com.rensights.admin.model.Deal;
 import com.rensights.admin.repository.DealRepository;
+import com.rensights.admin.repository.DealRepository.DealListView;
+import com.rensights.admin.util.KeysetCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,33 +37,26 @@ public class DealService {
     private static final Logger logger = LoggerFactory.getLogger(DealService.class);
     
     private final DealRepository dealRepository;
+    private final PageCountService pageCountService;
     
     // Constructor injection (better performance and testability)
-    public DealService(DealRepository dealRepository) {
+    public DealService(DealRepository dealRepository, PageCountService pageCountService) {
         this.dealRepository = dealRepository;
+        this.pageCountService = pageCountService;
     }
     
     /**
      * Get pending deals (today's batch) with pagination
      */
-    public Page<DealDTO> getPendingDeals(int page, int size, String city) {
-        Sort sort = Sort.by("createdAt").descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        Page<Deal> deals;
-        if (city != null && !city.isEmpty()) {
-            deals = dealRepository.findByStatusAndCity(Deal.DealStatus.PENDING, city, pageable);
-        } else {
-            deals = dealRepository.findByStatus(Deal.DealStatus.PENDING, pageable);
-        }
-        
-        return deals.map(this::toDTO);
+    public Page<DealSummaryDTO> getPendingDeals(int page, int size, String city, CountStrategy countStrategy) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return pageDeals(Deal.DealStatus.PENDING, city, null, pageable, countStrategy);
     }
     
     /**
      * Get pending deals for today's batch - Optimized: use date range instead of DATE() function
      */
-    public Page<DealDTO> getTodayPendingDeals(int page, int size) {
+    public Page<DealSummaryDTO> getTodayPendingDeals(int page, int size, CountStrategy countStrategy) {
         Sort sort = Sort.by("createdAt").descending();
         Pageable pageable = PageRequest.of(page, size, sort);
         LocalDateTime today = LocalDateTime.now();
@@ -58,9 +64,15 @@ public class DealService {
         LocalDateTime endOfDay = today.toLocalDate().atTime(23, 59, 59);
         
         // Optimized: Use date range query instead of DATE() function to allow index usage
-        Page<Deal> deals = dealRepository.findByStatusAndBatchDateBetween(
-            Deal.DealStatus.PENDING, startOfDay, endOfDay, pageable);
-        return deals.map(this::toDTO);
+        Slice<DealListView> deals = dealRepository.findByStatusAndBatchDateBetween(
+            Deal.DealStatus.PENDING, startOfDay, endOfDay, pageable, DealListView.class);
+        PageCountService.Total total = pageCountService.count(countStrategy,
+            "deals:today:" + startOfDay.toLocalDate(),
+            () -> dealRepository.countByStatusAndBatchDateBetween(Deal.DealStatus.PENDING, startOfDay, endOfDay),
+            () -> pageCountService.estimateQueryRows(
+                "SELECT 1 FROM deals WHERE status = ?1 AND batch_date BETWEEN ?2 AND ?3",
+                Deal.DealStatus.PENDING.name(), startOfDay, endOfDay));
+        return new CountedPage<>(deals.map(this::toSummaryDTO).getContent(), pageable, total.value(), total.strategy());
     }
     
     /**
@@ -176,6 +188,76 @@ public class DealService {
         return toDTO(deal);
     }
     
+    /**
+     * Approve multiple deals and return only their new status, taken from the
+     * UPDATE's RETURNING rows instead of re-reading the deals
+     */
+    @Transactional
+    public List<DealStatusDTO> approveDealsLean(List<UUID> dealIds, UUID approvedBy) {
+        if (dealIds == null || dealIds.isEmpty()) {
+            return List.of();
+        }
+        
+        List<DealRepository.DealStatusRow> rows =
+            dealRepository.bulkApproveDealsReturning(dealIds, approvedBy, LocalDateTime.now());
+        if (rows.size() != dealIds.size()) {
+            logger.warn("Only {} of {} deals were approved", rows.size(), dealIds.size());
+        }
+        logger.info("Approved {} deals by admin: {}", rows.size(), approvedBy);
+        
+        return rows.stream()
+            .map(row -> DealStatusDTO.builder()
+                .id(row.getId())
+                .status(row.getStatus())
+                .active(row.getActive())
+                .approvedAt(row.getApprovedAt() != null ? row.getApprovedAt().toLocalDateTime() : null)
+                .build())
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Reject multiple deals with one UPDATE; returns how many changed status
+     */
+    @Transactional
+    public int rejectDeals(List<UUID> dealIds) {
+        if (dealIds == null || dealIds.isEmpty()) {
+            return 0;
+        }
+        int updated = dealRepository.bulkRejectDeals(dealIds, LocalDateTime.now());
+        logger.info("Rejected {} of {} deals", updated, dealIds.size());
+        return updated;
+    }
+    
+    /**
+     * Activate or deactivate multiple deals with one UPDATE; returns how many changed
+     */
+    @Transactional
+    public int setDealsActive(List<UUID> dealIds, boolean active) {
+        if (dealIds == null || dealIds.isEmpty()) {
+            return 0;
+        }
+        int updated = dealRepository.bulkSetActive(dealIds, active, LocalDateTime.now());
+        logger.info("{} {} of {} deals", active ? "Activated" : "Deactivated", updated, dealIds.size());
+        return updated;
+    }
+    
+    /**
+     * Approve every pending deal in today's batch, optionally only those in a city
+     * and/or with a building status; returns how many were approved
+     */
+    @Transactional
+    public int approveTodayPendingDeals(String city, Deal.BuildingStatus buildingStatus, UUID approvedBy) {
+        LocalDateTime today = LocalDateTime.now();
+        LocalDateTime startOfDay = today.toLocalDate().atStartOfDay();
+        LocalDateTime endOfDay = today.toLocalDate().atTime(23, 59, 59);
+        
+        int updated = dealRepository.bulkApprovePendingInBatch(startOfDay, endOfDay,
+            city != null && !city.isEmpty() ? city : null, buildingStatus, approvedBy, today);
+        logger.info("Approved {} deals from today's batch (city={}, buildingStatus={}) by admin: {}",
+            updated, city, buildingStatus, approvedBy);
+        return updated;
+    }
+    
     /**
      * Get count of pending deals for today - Optimized: use date range instead of DATE() function
      */
@@ -192,43 +274,133 @@ public class DealService {
     /**
      * Get approved deals with pagination and filters
      */
-    public Page<DealDTO> getApprovedDeals(int page, int size, String city, Boolean active) {
-        Sort sort = Sort.by("approvedAt").descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        Page<Deal> deals;
-        if (city != null && !city.isEmpty()) {
-            if (active != null) {
-                deals = dealRepository.findByStatusAndActiveAndCity(Deal.DealStatus.APPROVED, active, city, pageable);
-            } else {
-                deals = dealRepository.findByStatusAndCity(Deal.DealStatus.APPROVED, city, pageable);
-            }
-        } else {
-            if (active != null) {
-                deals = dealRepository.findByStatusAndActive(Deal.DealStatus.APPROVED, active, pageable);
-            } else {
-                deals = dealRepository.findByStatus(Deal.DealStatus.APPROVED, pageable);
-            }
-        }
-        
-        return deals.map(this::toDTO);
+    public Page<DealSummaryDTO> getApprovedDeals(int page, int size, String city, Boolean active, CountStrategy countStrategy) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("approvedAt").descending());
+        return pageDeals(Deal.DealStatus.APPROVED, city, active, pageable, countStrategy);
     }
     
     /**
      * Get rejected deals (archived) with pagination and filters
      */
-    public Page<DealDTO> getRejectedDeals(int page, int size, String city) {
-        Sort sort = Sort.by("updatedAt").descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-        
-        Page<Deal> deals;
+    public Page<DealSummaryDTO> getRejectedDeals(int page, int size, String city, CountStrategy countStrategy) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
+        return pageDeals(Deal.DealStatus.REJECTED, city, null, pageable, countStrategy);
+    }
+
+    /**
+     * Fetches the page as a Slice (no COUNT) and resolves the total separately, so an
+     * ESTIMATED or CACHED total skips the count query entirely.
+     */
+    private Page<DealSummaryDTO> pageDeals(Deal.DealStatus status, String city, Boolean active, Pageable pageable,
+                                    CountStrategy countStrategy) {
+        boolean byCity = city != null && !city.isEmpty();
+
+        Slice<DealListView> deals;
+        if (byCity && active != null) {
+            deals = dealRepository.findByStatusAndActiveAndCity(status, active, city, pageable, DealListView.class);
+        } else if (byCity) {
+            deals = dealRepository.findByStatusAndCity(status, city, pageable, DealListView.class);
+        } else if (active != null) {
+            deals = dealRepository.findByStatusAndActive(status, active, pageable, DealListView.class);
+        } else {
+            deals = dealRepository.findByStatus(status, pageable, DealListView.class);
+        }
+
+        PageCountService.Total total = pageCountService.count(countStrategy,
+            "deals:" + status + ":" + (byCity ? city : "") + ":" + active,
+            () -> countDeals(status, city, active),
+            () -> estimateDeals(status, city, active));
+        return new CountedPage<>(deals.map(this::toSummaryDTO).getContent(), pageable, total.value(), total.strategy());
+    }
+
+    private long countDeals(Deal.DealStatus status, String city, Boolean active) {
+        boolean byCity = city != null && !city.isEmpty();
+        if (byCity && active != null) {
+            return dealRepository.countByStatusAndActiveAndCity(status, active, city);
+        } else if (byCity) {
+            return dealRepository.countByStatusAndCity(status, city);
+        } else if (active != null) {
+            return dealRepository.countByStatusAndActive(status, active);
+        }
+        return dealRepository.countByStatus(status);
+    }
+
+    private OptionalLong estimateDeals(Deal.DealStatus status, String city, Boolean active) {
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM deals WHERE status = ?1");
+        List<Object> params = new ArrayList<>();
+        params.add(status.name());
         if (city != null && !city.isEmpty()) {
-            deals = dealRepository.findByStatusAndCity(Deal.DealStatus.REJECTED, city, pageable);
+            params.add(city);
+            sql.append(" AND city = ?").append(params.size());
+        }
+        if (active != null) {
+            params.add(active);
+            sql.append(" AND active = ?").append(params.size());
+        }
+        return pageCountService.estimateQueryRows(sql.toString(), params.toArray());
+    }
+    
+    /**
+     * Keyset-paginated variant of {@link #getPendingDeals}.
+     */
+    public CursorPageDTO<DealSummaryDTO> getPendingDealsByCursor(String cursor, int size, String city, boolean includeTotal) {
+        return scrollDeals(Deal.DealStatus.PENDING, city, null, Sort.by("createdAt").descending(),
+            cursor, size, includeTotal);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getTodayPendingDeals}.
+     */
+    public CursorPageDTO<DealSummaryDTO> getTodayPendingDealsByCursor(String cursor, int size, boolean includeTotal) {
+        LocalDateTime today = LocalDateTime.now();
+        LocalDateTime startOfDay = today.toLocalDate().atStartOfDay();
+        LocalDateTime endOfDay = today.toLocalDate().atTime(23, 59, 59);
+
+        Window<DealListView> deals = dealRepository.findByStatusAndBatchDateBetween(
+            Deal.DealStatus.PENDING, startOfDay, endOfDay,
+            KeysetCursor.decode(cursor, Deal.class), Sort.by("createdAt").descending(), Limit.of(size),
+            DealListView.class);
+        Long total = includeTotal
+            ? dealRepository.countByStatusAndBatchDateBetween(Deal.DealStatus.PENDING, startOfDay, endOfDay)
+            : null;
+        return CursorPageDTO.of(deals, this::toSummaryDTO, total);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getApprovedDeals}.
+     */
+    public CursorPageDTO<DealSummaryDTO> getApprovedDealsByCursor(String cursor, int size, String city, Boolean active,
+                                                          boolean includeTotal) {
+        return scrollDeals(Deal.DealStatus.APPROVED, city, active, Sort.by("approvedAt").descending(),
+            cursor, size, includeTotal);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getRejectedDeals}.
+     */
+    public CursorPageDTO<DealSummaryDTO> getRejectedDealsByCursor(String cursor, int size, String city, boolean includeTotal) {
+        return scrollDeals(Deal.DealStatus.REJECTED, city, null, Sort.by("updatedAt").descending(),
+            cursor, size, includeTotal);
+    }
+
+    private CursorPageDTO<DealSummaryDTO> scrollDeals(Deal.DealStatus status, String city, Boolean active, Sort sort,
+                                               String cursor, int size, boolean includeTotal) {
+        ScrollPosition position = KeysetCursor.decode(cursor, Deal.class);
+        Limit limit = Limit.of(size);
+        boolean byCity = city != null && !city.isEmpty();
+
+        Window<DealListView> deals;
+        if (byCity && active != null) {
+            deals = dealRepository.findByStatusAndActiveAndCity(status, active, city, position, sort, limit,
+                DealListView.class);
+        } else if (byCity) {
+            deals = dealRepository.findByStatusAndCity(status, city, position, sort, limit, DealListView.class);
+        } else if (active != null) {
+            deals = dealRepository.findByStatusAndActive(status, active, position, sort, limit, DealListView.class);
         } else {
-            deals = dealRepository.findByStatus(Deal.DealStatus.REJECTED, pageable);
+            deals = dealRepository.findByStatus(status, position, sort, limit, DealListView.class);
         }
-        
-        return deals.map(this::toDTO);
+        return CursorPageDTO.of(deals, this::toSummaryDTO, includeTotal ? countDeals(status, city, active) : null);
     }
     
     /**
@@ -334,7 +506,47 @@ public class DealService {
     }
     
     /**
-     * Convert Deal entity to DTO (basic, without relationships - used in lists)
+     * Convert a list-view projection to the summary DTO used by the list endpoints
+     */
+    private DealSummaryDTO toSummaryDTO(DealListView deal) {
+        return DealSummaryDTO.builder()
+                .id(deal.getId())
+                .name(deal.getName())
+                .location(deal.getLocation())
+                .city(deal.getCity())
+                .area(deal.getArea())
+                .bedrooms(deal.getBedrooms())
+                .bedroomCount(deal.getBedroomCount())
+                .size(deal.getSize())
+                .listedPrice(deal.getListedPrice())
+                .priceValue(deal.getPriceValue())
+                .estimateMin(deal.getEstimateMin())
+                .estimateMax(deal.getEstimateMax())
+                .estimateRange(deal.getEstimateRange())
+                .discount(deal.getDiscount())
+                .rentalYield(deal.getRentalYield())
+                .grossRentalYield(deal.getGrossRentalYield())
+                .buildingStatus(deal.getBuildingStatus())
+                .propertyType(deal.getPropertyType())
+                .priceVsEstimations(deal.getPriceVsEstimations())
+                .pricePerSqft(deal.getPricePerSqft())
+                .pricePerSqftVsMarket(deal.getPricePerSqftVsMarket())
+                .serviceCharge(deal.getServiceCharge())
+                .developer(deal.getDeveloper())
+                .propertyLink(deal.getPropertyLink())
+                .propertyId(deal.getPropertyId())
+                .status(deal.getStatus())
+                .active(deal.getActive())
+                .batchDate(deal.getBatchDate())
+                .approvedAt(deal.getApprovedAt())
+                .approvedBy(deal.getApprovedBy())
+                .createdAt(deal.getCreatedAt())
+                .updatedAt(deal.getUpdatedAt())
+                .build();
+    }
+    
+    /**
+     * Convert Deal entity to DTO (basic, without relationships)
      */
     private DealDTO toDTO(Deal deal) {
         return toDTOBasic(deal);
@@ -0,0 +1,107 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.repository.DeviceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Fills devices.device_class so the dashboard can GROUP BY a stored column instead
+ * of scanning user agents. app-backend inserts devices without a class, so this job
+ * is both the one-off backfill and the steady-state "first seen" classification.
+ *
+ * Each run walks the devices whose updated_at lies in (watermark, now - lag] in
+ * (updated_at, id) order, in fixed-size batches, then advances the watermark; the
+ * first run has no watermark and classifies everything. Each batch is its own short
+ * UPDATE, so an interrupted run simply starts over from the old watermark, and
+ * running on several replicas at once only repeats idempotent writes.
+ */
+@Service
+public class DeviceClassificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceClassificationService.class);
+
+    public static final String WATERMARK_KEY = "deviceClassification.watermark";
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceClassifier deviceClassifier;
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${devices.classification.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${devices.classification.lag:2m}")
+    private Duration lag;
+
+    public DeviceClassificationService(DeviceRepository deviceRepository, DeviceClassifier deviceClassifier,
+                                       JobCoordinator jobCoordinator) {
+        this.deviceRepository = deviceRepository;
+        this.deviceClassifier = deviceClassifier;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    @Scheduled(initialDelayString = "${devices.classification.initial-delay-ms:30000}",
+               fixedDelayString = "${devices.classification.interval-ms:120000}")
+    public void classifyPendingDevices() {
+        long started = System.currentTimeMillis();
+        LocalDateTime through = LocalDateTime.now().minus(lag).truncatedTo(ChronoUnit.MICROS);
+        Optional<LocalDateTime> watermark = readWatermark();
+        if (watermark.isPresent() && !watermark.get().isBefore(through)) {
+            return;
+        }
+        LocalDateTime afterUpdatedAt = watermark.orElse(BEGINNING);
+        UUID afterId = FIRST_ID;
+        int classified = 0;
+        while (true) {
+            List<DeviceRepository.PendingClassification> batch =
+                deviceRepository.findPendingClassification(afterUpdatedAt, afterId, through, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Map<String, List<UUID>> idsByClass = new HashMap<>();
+            for (DeviceRepository.PendingClassification device : batch) {
+                idsByClass.computeIfAbsent(deviceClassifier.classify(device.getUserAgent()), key -> new ArrayList<>())
+                    .add(device.getId());
+            }
+            LocalDateTime classifiedAt = LocalDateTime.now();
+            idsByClass.forEach((deviceClass, ids) ->
+                deviceRepository.updateDeviceClass(ids, deviceClass, classifiedAt));
+
+            classified += batch.size();
+            DeviceRepository.PendingClassification last = batch.get(batch.size() - 1);
+            afterUpdatedAt = last.getUpdatedAt().toLocalDateTime();
+            afterId = last.getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        writeWatermark(through);
+        if (classified > 0) {
+            logger.info("Classified {} devices in {} ms", classified, System.currentTimeMillis() - started);
+        }
+    }
+
+    private Optional<LocalDateTime> readWatermark() {
+        return jobCoordinator.readWatermark(WATERMARK_KEY, LocalDateTime::parse);
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        jobCoordinator.writeWatermark(WATERMARK_KEY, watermark);
+    }
+}
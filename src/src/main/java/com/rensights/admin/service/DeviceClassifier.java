@@ -0,0 +1,46 @@
+package com.rensights.admin.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+/**
+ * User-agent to device class rules used everywhere a device type is shown.
+ * Tablet is checked before mobile (iPad / Android tablet UAs also say "mobi"),
+ * and a missing UA counts as desktop.
+ *
+ * Classification results are kept in a bounded cache: the set of distinct UA
+ * strings is small compared to the number of devices, so repeated lookups from
+ * the backfill job and the dashboard fallback rarely reach the string scan.
+ */
+@Component
+public class DeviceClassifier {
+
+    public static final String DESKTOP = "Desktop";
+    public static final String MOBILE = "Mobile";
+    public static final String TABLET = "Tablet";
+
+    private static final int MAX_CACHED_USER_AGENTS = 10_000;
+
+    private final Cache<String, String> classifications = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_USER_AGENTS)
+        .build();
+
+    public String classify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return DESKTOP;
+        }
+        return classifications.get(userAgent, DeviceClassifier::classifyUncached);
+    }
+
+    private static String classifyUncached(String userAgent) {
+        String ua = userAgent.toLowerCase();
+        if (ua.contains("ipad") || ua.contains("tablet")) {
+            return TABLET;
+        }
+        if (ua.contains("mobi") || ua.contains("iphone") || ua.contains("android")) {
+            return MOBILE;
+        }
+        return DESKTOP;
+    }
+}
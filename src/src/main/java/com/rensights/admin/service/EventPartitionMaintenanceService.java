@@ -0,0 +1,117 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.service.JobCoordinator.Job;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the monthly RANGE partitions of login_events and activity_events ahead of
+ * the clock once the tables have been converted with
+ * resources/db/partitioning/convert_event_tables_to_monthly_partitions.sql.
+ *
+ * Each run creates the current month's partition plus months-ahead more, so inserts
+ * never land in the default partition. With retention-months > 0 it also drops
+ * partitions that ended before the retention window - whole-partition drops, no
+ * bulk DELETE. Tables that are not (yet) partitioned are skipped with a warning.
+ */
+@Service
+public class EventPartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventPartitionMaintenanceService.class);
+
+    private static final List<String> TABLES = List.of("login_events", "activity_events");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JobCoordinator jobCoordinator;
+
+    @Value("${analytics.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${analytics.partitioning.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${analytics.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    public EventPartitionMaintenanceService(JobCoordinator jobCoordinator) {
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    @Scheduled(cron = "${analytics.partitioning.cron:0 45 3 * * *}")
+    @Transactional
+    public void maintainPartitions() {
+        if (!enabled || !jobCoordinator.tryLock(Job.EVENT_PARTITIONS)) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (String table : TABLES) {
+            if (!isPartitioned(table)) {
+                logger.warn("{} is not partitioned; run convert_event_tables_to_monthly_partitions.sql first", table);
+                continue;
+            }
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(table, current.plusMonths(i));
+            }
+            if (retentionMonths > 0) {
+                dropPartitionsBefore(table, current.minusMonths(retentionMonths));
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        List<?> rows = entityManager
+            .createNativeQuery("SELECT CAST(relkind AS VARCHAR) FROM pg_class WHERE oid = to_regclass(?1)")
+            .setParameter(1, table)
+            .getResultList();
+        return !rows.isEmpty() && "p".equals(rows.get(0));
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        // Identifiers come from TABLES and a formatted date, never from input.
+        String partition = table + "_p" + month.format(PARTITION_SUFFIX);
+        entityManager.createNativeQuery("CREATE TABLE IF NOT EXISTS " + partition
+                + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')")
+            .executeUpdate();
+    }
+
+    private void dropPartitionsBefore(String table, YearMonth cutoff) {
+        @SuppressWarnings("unchecked")
+        List<String> partitions = entityManager.createNativeQuery(
+                "SELECT CAST(c.relname AS VARCHAR) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = to_regclass(?1)")
+            .setParameter(1, table)
+            .getResultList();
+        String prefix = table + "_p";
+        for (String partition : partitions) {
+            if (!partition.startsWith(prefix)) {
+                continue;
+            }
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (month.isBefore(cutoff)) {
+                entityManager.createNativeQuery("DROP TABLE " + partition).executeUpdate();
+                logger.info("Dropped partition {} (older than {} months)", partition, retentionMonths);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.rensights.admin.service;
+
+import java.util.UUID;
+
+/**
+ * No export job with the requested id (never created, or already purged).
+ */
+public class ExportJobNotFoundException extends RuntimeException {
+
+    public ExportJobNotFoundException(UUID jobId) {
+        super("Export job not found: " + jobId);
+    }
+}
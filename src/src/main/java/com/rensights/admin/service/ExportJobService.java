@@ -0,0 +1,274 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.dto.ExportJobDTO;
+import com.rensights.admin.model.ExportJob;
+import com.rensights.admin.repository.ExportJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs customer analytics exports in the background instead of inside the HTTP request.
+ *
+ * A job is recorded as QUEUED and handed to a small fixed pool with a bounded queue;
+ * when the queue is full the request is refused rather than piling up work. Workers
+ * write gzip-compressed output to ${reports.storage.path}/exports via a ".part" file
+ * that is renamed on success, so a download never sees a half-written file.
+ * Jobs and their files are removed after export.jobs.retention.
+ *
+ * Several instances share the exports volume (rolling updates surge a new pod while
+ * the old ones still run jobs), so each job records its owner instance and the
+ * owner refreshes a heartbeat on its open jobs. A job is failed, and its ".part"
+ * file deleted, only when its owner restarts or its heartbeat goes stale.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final String EXPORTS_DIR = "exports";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final Set<ExportJob.ExportStatus> OPEN_STATUSES =
+        EnumSet.of(ExportJob.ExportStatus.QUEUED, ExportJob.ExportStatus.RUNNING);
+
+    private final ExportJobRepository exportJobRepository;
+    private final CustomerAnalyticsService customerAnalyticsService;
+    private final ThreadPoolExecutor executor;
+    private final String instanceId;
+
+    @Value("${reports.storage.path:/data/reports}")
+    private String storagePath;
+
+    @Value("${export.jobs.retention:7d}")
+    private Duration retention;
+
+    @Value("${export.jobs.heartbeat-stale-after:5m}")
+    private Duration heartbeatStaleAfter;
+
+    public ExportJobService(ExportJobRepository exportJobRepository,
+                            CustomerAnalyticsService customerAnalyticsService,
+                            @Value("${export.jobs.workers:2}") int workers,
+                            @Value("${export.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${export.jobs.instance-id:${HOSTNAME:}}") String instanceId) {
+        this.exportJobRepository = exportJobRepository;
+        this.customerAnalyticsService = customerAnalyticsService;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("export-job-"));
+        this.instanceId = instanceId != null && !instanceId.isBlank() ? instanceId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Record a job and queue it.
+     *
+     * @throws IllegalStateException if the export queue is full
+     */
+    public ExportJobDTO submit(ExportJob.ExportType exportType, String requestedBy) {
+        ExportJob job = exportJobRepository.save(ExportJob.builder()
+            .exportType(exportType)
+            .requestedBy(requestedBy)
+            .ownerInstance(instanceId)
+            .heartbeatAt(LocalDateTime.now())
+            .build());
+        UUID jobId = job.getId();
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(ExportJob.ExportStatus.FAILED);
+            job.setErrorMessage("Export queue is full");
+            job.setCompletedAt(LocalDateTime.now());
+            exportJobRepository.save(job);
+            throw new IllegalStateException("Too many exports in progress, try again later");
+        }
+        logger.info("Export job {} queued: {} (requested by {})", jobId, exportType, requestedBy);
+        return toDTO(job);
+    }
+
+    /**
+     * @throws ExportJobNotFoundException if there is no such job
+     */
+    public ExportJobDTO getJob(UUID jobId) {
+        return exportJobRepository.findById(jobId)
+            .map(this::toDTO)
+            .orElseThrow(() -> new ExportJobNotFoundException(jobId));
+    }
+
+    /**
+     * @throws ExportJobNotFoundException if there is no such job
+     * @throws IllegalStateException if the job has not completed
+     */
+    public ExportJob getCompletedJob(UUID jobId) {
+        ExportJob job = exportJobRepository.findById(jobId)
+            .orElseThrow(() -> new ExportJobNotFoundException(jobId));
+        if (job.getStatus() != ExportJob.ExportStatus.COMPLETED) {
+            throw new IllegalStateException("Export job is " + job.getStatus());
+        }
+        return job;
+    }
+
+    public Path resolveFile(ExportJob job) {
+        return Paths.get(storagePath).resolve(job.getFilePath()).normalize();
+    }
+
+    @Scheduled(cron = "${export.jobs.cleanup-cron:0 15 4 * * *}")
+    public void purgeExpiredJobs() {
+        List<ExportJob> expired = exportJobRepository.findByCreatedAtBefore(LocalDateTime.now().minus(retention));
+        for (ExportJob job : expired) {
+            if (job.getFilePath() != null) {
+                try {
+                    Files.deleteIfExists(resolveFile(job));
+                } catch (IOException e) {
+                    logger.warn("Could not delete export file {}: {}", job.getFilePath(), e.getMessage());
+                }
+            }
+        }
+        exportJobRepository.deleteAll(expired);
+        if (!expired.isEmpty()) {
+            logger.info("Purged {} expired export jobs", expired.size());
+        }
+    }
+
+    /**
+     * On startup, jobs this instance owned before a restart are gone with its old
+     * pool. Jobs of other instances are only touched if their heartbeat is stale.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recoverInterruptedJobs() {
+        failAbandonedJobs(true, "Interrupted by server restart");
+    }
+
+    /** Keeps this instance's open jobs alive and fails those of instances that went away. */
+    @Scheduled(initialDelayString = "${export.jobs.heartbeat-interval-ms:30000}",
+               fixedDelayString = "${export.jobs.heartbeat-interval-ms:30000}")
+    @Transactional
+    public void heartbeat() {
+        exportJobRepository.touchHeartbeats(instanceId, OPEN_STATUSES, LocalDateTime.now());
+        failAbandonedJobs(false, "Export worker stopped responding");
+    }
+
+    private void failAbandonedJobs(boolean includeOwn, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExportJob> abandoned = exportJobRepository.findAbandonedJobs(
+            OPEN_STATUSES, instanceId, includeOwn, now.minus(heartbeatStaleAfter));
+        for (ExportJob job : abandoned) {
+            try {
+                Files.deleteIfExists(partialFile(job.getId()));
+            } catch (IOException e) {
+                logger.warn("Could not delete partial export file for job {}: {}", job.getId(), e.getMessage());
+            }
+            job.setStatus(ExportJob.ExportStatus.FAILED);
+            job.setErrorMessage(reason);
+            job.setCompletedAt(now);
+        }
+        exportJobRepository.saveAll(abandoned);
+        if (!abandoned.isEmpty()) {
+            logger.warn("Marked {} abandoned export jobs as failed: {}", abandoned.size(), reason);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(UUID jobId) {
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(ExportJob.ExportStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setHeartbeatAt(job.getStartedAt());
+        job = exportJobRepository.save(job);
+
+        String storedName = storedName(jobId);
+        Path dir = Paths.get(storagePath, EXPORTS_DIR);
+        Path target = dir.resolve(storedName);
+        Path partial = partialFile(jobId);
+        long started = System.currentTimeMillis();
+        try {
+            Files.createDirectories(dir);
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partial)), GZIP_BUFFER_SIZE)) {
+                switch (job.getExportType()) {
+                    case CUSTOMER_LOGIN_STATS -> customerAnalyticsService.writeCustomerLoginStatsCsv(out);
+                    case FULL_ANALYTICS -> customerAnalyticsService.writeFullExportCsv(out);
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStatus(ExportJob.ExportStatus.COMPLETED);
+            job.setFilePath(EXPORTS_DIR + "/" + storedName);
+            job.setFileName(downloadName(job.getExportType()));
+            job.setFileSize(Files.size(target));
+            logger.info("Export job {} completed in {} ms ({} bytes)",
+                jobId, System.currentTimeMillis() - started, job.getFileSize());
+        } catch (Exception e) {
+            logger.error("Export job {} failed: {}", jobId, e.getMessage(), e);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+            }
+            job.setStatus(ExportJob.ExportStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+        }
+        job.setCompletedAt(LocalDateTime.now());
+        exportJobRepository.save(job);
+    }
+
+    private static String storedName(UUID jobId) {
+        return jobId + ".csv.gz";
+    }
+
+    private Path partialFile(UUID jobId) {
+        return Paths.get(storagePath, EXPORTS_DIR, storedName(jobId) + ".part");
+    }
+
+    private static String downloadName(ExportJob.ExportType exportType) {
+        String prefix = exportType == ExportJob.ExportType.FULL_ANALYTICS
+            ? "customer-analytics-full-export-"
+            : "customer-login-stats-";
+        return prefix + LocalDate.now() + ".csv.gz";
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        return ExportJobDTO.builder()
+            .id(job.getId().toString())
+            .exportType(job.getExportType().name())
+            .status(job.getStatus().name())
+            .fileName(job.getFileName())
+            .fileSize(job.getFileSize())
+            .errorMessage(job.getErrorMessage())
+            .createdAt(job.getCreatedAt())
+            .startedAt(job.getStartedAt())
+            .completedAt(job.getCompletedAt())
+            .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.model.AppSetting;
+import com.rensights.admin.repository.AppSettingRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Shared plumbing for the jobs that maintain this service's own tables (rollups,
+ * counters, sketches, login stats, partitions) and for deal imports: a watermark
+ * per job in app_settings, and a transaction-scoped advisory lock so only one
+ * replica runs a given job at a time.
+ */
+@Service
+public class JobCoordinator {
+
+    /** One advisory lock per job. The keys are arbitrary but must stay fixed and distinct. */
+    public enum Job {
+        DASHBOARD_ROLLUP(0x52454e5344415348L),
+        ACTIVE_USER_SKETCHES(0x52454e53484c4c53L),
+        ACTIVITY_COUNTERS(0x52454e5341435452L),
+        USER_LOGIN_STATS(0x52454e534c4f474eL),
+        EVENT_PARTITIONS(0x52454e5350415254L),
+        DEAL_IMPORT(0x52454e534445414cL);
+
+        private final long lockKey;
+
+        Job(long lockKey) {
+            this.lockKey = lockKey;
+        }
+    }
+
+    private final AppSettingRepository appSettingRepository;
+
+    public JobCoordinator(AppSettingRepository appSettingRepository) {
+        this.appSettingRepository = appSettingRepository;
+    }
+
+    /**
+     * Takes the job's lock until the current transaction ends; false if another
+     * replica holds it. Outside a transaction the lock would be released at once,
+     * hence MANDATORY.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryLock(Job job) {
+        return appSettingRepository.tryAdvisoryXactLock(job.lockKey);
+    }
+
+    /** The stored watermark, or empty if the job has never completed a run. */
+    public <T> Optional<T> readWatermark(String key, Function<String, T> parser) {
+        return appSettingRepository.findById(key)
+            .map(AppSetting::getSettingValue)
+            .filter(value -> value != null && !value.isBlank())
+            .map(parser);
+    }
+
+    /** Stores {@code value.toString()}; commits with the caller's transaction. */
+    public void writeWatermark(String key, Object value) {
+        AppSetting setting = appSettingRepository.findById(key)
+            .orElseGet(() -> AppSetting.builder().settingKey(key).build());
+        setting.setSettingValue(value.toString());
+        appSettingRepository.save(setting);
+    }
+}
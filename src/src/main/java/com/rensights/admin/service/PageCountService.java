@@ -0,0 +1,107 @@
+package com.rensights.admin.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rensights.admin.dto.CountStrategy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves totalElements for paginated endpoints according to a {@link CountStrategy}.
+ * Callers fetch their rows as a Slice (no COUNT) and ask this service for the total.
+ *
+ * Estimates come from PostgreSQL statistics: pg_class.reltuples for an unfiltered
+ * table, or the top-level "rows=" of EXPLAIN for a filtered list. When no estimate is
+ * available (table never analysed) the exact count is used and
+ * reported as EXACT.
+ */
+@Service
+public class PageCountService {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<String, Long> cachedCounts;
+
+    public PageCountService(@Value("${pagination.count.cache-ttl:60s}") Duration cacheTtl) {
+        this.cachedCounts = Caffeine.newBuilder()
+            .expireAfterWrite(cacheTtl)
+            .maximumSize(1_000)
+            .build();
+    }
+
+    public record Total(long value, CountStrategy strategy) {
+    }
+
+    /**
+     * @param cacheKey identifies the list and its filters for CACHED
+     * @param exact    the exact COUNT(*)
+     * @param estimate a statistics-based estimate, empty if none is available
+     */
+    public Total count(CountStrategy strategy, String cacheKey, LongSupplier exact, Supplier<OptionalLong> estimate) {
+        switch (strategy) {
+            case ESTIMATED -> {
+                OptionalLong estimated = estimate.get();
+                if (estimated.isPresent()) {
+                    return new Total(estimated.getAsLong(), CountStrategy.ESTIMATED);
+                }
+            }
+            case CACHED -> {
+                return new Total(cachedCounts.get(cacheKey, key -> exact.getAsLong()), CountStrategy.CACHED);
+            }
+            default -> {
+            }
+        }
+        return new Total(exact.getAsLong(), CountStrategy.EXACT);
+    }
+
+    /**
+     * Row estimate for a whole table from pg_class.reltuples. Empty if the table has
+     * never been vacuumed or analysed (reltuples = -1).
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong estimateTableRows(String table) {
+        List<?> result = entityManager
+            .createNativeQuery("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(?1)")
+            .setParameter(1, table)
+            .getResultList();
+        if (!result.isEmpty() && result.get(0) instanceof Number rows && rows.longValue() >= 0) {
+            return OptionalLong.of(rows.longValue());
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * The planner's row estimate for a query, read from the first line of its EXPLAIN
+     * output. The query is planned but not executed. Parameters are bound as ?1, ?2...
+     */
+    @Transactional(readOnly = true)
+    public OptionalLong estimateQueryRows(String sql, Object... params) {
+        Query query = entityManager.createNativeQuery("EXPLAIN " + sql);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        List<?> plan = query.getResultList();
+        if (!plan.isEmpty()) {
+            Matcher matcher = PLAN_ROWS.matcher(String.valueOf(plan.get(0)));
+            if (matcher.find()) {
+                return OptionalLong.of(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return OptionalLong.empty();
+    }
+}
@@ -0,0 +1,164 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory "active now" count, so the summary doesn't count users.last_seen_at
+ * on every request.
+ *
+ * app-backend owns the heartbeat and writes users.last_seen_at; this service only
+ * reads it. Every poll picks up the rows whose last_seen_at moved since the
+ * previous poll and files each user into a ring of time slots covering the
+ * presence window. lastSlotByUser holds each present user's newest slot, so the
+ * active count is its size; when a slot falls out of the window its users are
+ * dropped unless they have been seen again since. Every replica polls on its own
+ * and holds the same picture.
+ *
+ * The count is exact to one slot: a user can stay counted up to slot-size past
+ * the window until the next poll evicts them.
+ */
+@Service
+public class PresenceTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceTracker.class);
+
+    private final UserRepository userRepository;
+
+    @Value("${analytics.presence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.presence.window:5m}")
+    private Duration window;
+
+    @Value("${analytics.presence.slot:10s}")
+    private Duration slot;
+
+    private final Map<UUID, Long> lastSlotByUser = new ConcurrentHashMap<>();
+    private List<Set<UUID>> ring;
+    private long[] ringSlotIds;
+    private long slotMillis;
+    private long advancedThrough = Long.MIN_VALUE;
+    private LocalDateTime polledThrough;
+    private volatile LocalDateTime lastPollAt;
+
+    public PresenceTracker(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        slotMillis = slot.toMillis();
+        int slots = (int) Math.max(1, window.toMillis() / slotMillis);
+        ring = new ArrayList<>(slots);
+        ringSlotIds = new long[slots];
+        for (int i = 0; i < slots; i++) {
+            ring.add(ConcurrentHashMap.newKeySet());
+            ringSlotIds[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Users seen within the presence window, or empty while the tracker is off or
+     * its last poll is too old to trust (callers fall back to the database).
+     */
+    public OptionalLong activeNow() {
+        LocalDateTime polledAt = lastPollAt;
+        if (!enabled || polledAt == null || polledAt.isBefore(LocalDateTime.now().minus(slot.multipliedBy(3)))) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(lastSlotByUser.size());
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.presence.poll-interval-ms:10000}")
+    @Transactional(readOnly = true)
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long currentSlot = slotOf(now);
+        advanceTo(currentSlot);
+
+        // Re-read from the previous high-water mark inclusive; recording a user twice is harmless.
+        LocalDateTime since = polledThrough != null ? polledThrough : now.minus(window);
+        LocalDateTime newest = since;
+        int seen = 0;
+        for (UserRepository.LastSeen row : userRepository.findLastSeenSince(since)) {
+            LocalDateTime lastSeenAt = row.getLastSeenAt().toLocalDateTime();
+            record(row.getUserId(), Math.min(slotOf(lastSeenAt), currentSlot), currentSlot);
+            if (lastSeenAt.isAfter(newest)) {
+                newest = lastSeenAt;
+            }
+            seen++;
+        }
+        polledThrough = newest;
+        lastPollAt = now;
+        if (seen > 0) {
+            logger.trace("Presence poll: {} heartbeats, {} users active", seen, lastSlotByUser.size());
+        }
+    }
+
+    private void record(UUID userId, long userSlot, long currentSlot) {
+        if (userSlot <= currentSlot - ring.size()) {
+            return;
+        }
+        Long previous = lastSlotByUser.get(userId);
+        if (previous != null && previous >= userSlot) {
+            return;
+        }
+        lastSlotByUser.put(userId, userSlot);
+        ring.get(position(userSlot)).add(userId);
+    }
+
+    /** Expires every slot that has left the window since the last advance. */
+    private void advanceTo(long currentSlot) {
+        if (advancedThrough != Long.MIN_VALUE && currentSlot - advancedThrough >= ring.size()) {
+            // Nothing in the ring is still inside the window.
+            lastSlotByUser.clear();
+            for (Set<UUID> users : ring) {
+                users.clear();
+            }
+            advancedThrough = Long.MIN_VALUE;
+        }
+        // First run (or after a long gap): label the whole ring so every slot in the window can expire later.
+        long from = advancedThrough == Long.MIN_VALUE ? currentSlot - ring.size() + 1 : advancedThrough + 1;
+        for (long slotId = from; slotId <= currentSlot; slotId++) {
+            int position = position(slotId);
+            long expired = ringSlotIds[position];
+            if (expired != Long.MIN_VALUE) {
+                for (UUID userId : ring.get(position)) {
+                    lastSlotByUser.remove(userId, expired);
+                }
+            }
+            ring.get(position).clear();
+            ringSlotIds[position] = slotId;
+        }
+        advancedThrough = currentSlot;
+    }
+
+    private long slotOf(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / slotMillis;
+    }
+
+    private int position(long slotId) {
+        return (int) Math.floorMod(slotId, (long) ring.size());
+    }
+}
@@ -0,0 +1,114 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.dto.Granularity;
+import com.rensights.admin.dto.TimeSeriesPoint;
+import com.rensights.admin.util.TimeSeriesQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dense trend series in one query: generate_series produces every bucket of the
+ * window and the aggregate is LEFT JOINed onto it, so empty buckets come back as
+ * 0 and nothing is gap-filled in Java.
+ *
+ * Timestamps are stored without a zone, in storage-zone local time. Buckets for
+ * another zone are cut after converting each row with AT TIME ZONE; the range
+ * filter itself stays on the raw column so its index is still usable.
+ */
+@Service
+public class TimeSeriesService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ZoneId storageZone;
+
+    public TimeSeriesService(@Value("${analytics.time-series.storage-zone:}") String storageZone) {
+        this.storageZone = storageZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(storageZone);
+    }
+
+    public ZoneId storageZone() {
+        return storageZone;
+    }
+
+    /** A request's tz parameter; blank means the storage zone. */
+    public ZoneId resolveZone(String tz) {
+        if (tz == null || tz.isBlank()) {
+            return storageZone;
+        }
+        try {
+            return ZoneId.of(tz.trim());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + tz);
+        }
+    }
+
+    /**
+     * Buckets of {@code granularity} covering [from, to) in {@code zone}, oldest
+     * first. {@code from} and {@code to} are storage-zone times, like the columns.
+     */
+    @Transactional(readOnly = true)
+    public List<TimeSeriesPoint> fetch(TimeSeriesQuery query, Granularity granularity,
+                                       LocalDateTime from, LocalDateTime to, ZoneId zone) {
+        boolean convert = !zone.equals(storageZone);
+        String bucketExpression = convert
+            ? "(" + query.timeExpression() + ") AT TIME ZONE :storageZone AT TIME ZONE :zone"
+            : query.timeExpression();
+        String sql = "SELECT b.bucket, COALESCE(x.value, 0), "
+            + "SUM(COALESCE(x.value, 0)) OVER (ORDER BY b.bucket) "
+            + "FROM generate_series(date_trunc(:unit, CAST(:seriesFrom AS timestamp)), "
+            + "  CAST(:seriesTo AS timestamp) - INTERVAL '1 microsecond', CAST(:step AS interval)) AS b(bucket) "
+            + "LEFT JOIN ("
+            + "  SELECT date_trunc(:unit, " + bucketExpression + ") AS bucket, " + query.aggregate() + " AS value "
+            + "  FROM " + query.table()
+            + "  WHERE " + query.timeExpression() + " >= :from AND " + query.timeExpression() + " < :to"
+            + (query.filter() != null ? " AND " + query.filter() : "")
+            + "  GROUP BY 1"
+            + ") x ON x.bucket = b.bucket "
+            + "ORDER BY b.bucket";
+
+        Query nativeQuery = entityManager.createNativeQuery(sql)
+            .setParameter("unit", granularity.unit())
+            .setParameter("step", granularity.step())
+            .setParameter("seriesFrom", toZone(from, zone))
+            .setParameter("seriesTo", toZone(to, zone))
+            .setParameter("from", from)
+            .setParameter("to", to);
+        if (convert) {
+            nativeQuery.setParameter("storageZone", storageZone.getId());
+            nativeQuery.setParameter("zone", zone.getId());
+        }
+
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        for (Object result : nativeQuery.getResultList()) {
+            Object[] row = (Object[]) result;
+            points.add(new TimeSeriesPoint(
+                toLocalDateTime(row[0]),
+                ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue()));
+        }
+        return points;
+    }
+
+    private LocalDateTime toZone(LocalDateTime storageTime, ZoneId zone) {
+        return storageTime.atZone(storageZone).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
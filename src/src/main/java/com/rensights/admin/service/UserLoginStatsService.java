@@ -0,0 +1,154 @@
+package com.rensights.admin.service;
+
+import com.rensights.admin.repository.LoginEventRepository;
+import com.rensights.admin.repository.UserLoginStatsRepository;
+import com.rensights.admin.service.JobCoordinator.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-customer login count, first/last login and last IP from user_login_stats
+ * instead of grouping login_events for every lookup.
+ *
+ * Each incremental run folds the logins of (watermark, now - lag] into the table
+ * and moves the watermark; the nightly rebuild recomputes it from scratch, which
+ * picks up rows committed later than the lag and deleted users' leftovers.
+ * Lookups read the table and top it up with the logins past the watermark (an
+ * index range per user), so answers are exact rather than a few minutes behind.
+ * Each lookup statement reads the watermark itself; reading it separately would
+ * double-count the logins of a run that commits in between.
+ */
+@Service
+public class UserLoginStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLoginStatsService.class);
+
+    public static final String WATERMARK_KEY = "userLoginStats.watermark";
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final UserLoginStatsRepository statsRepository;
+    private final LoginEventRepository loginEventRepository;
+    private final JobCoordinator jobCoordinator;
+    private final BatchedLookupService batchedLookupService;
+
+    @Value("${analytics.login-stats.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.login-stats.lag:2m}")
+    private Duration lag;
+
+    public UserLoginStatsService(UserLoginStatsRepository statsRepository,
+                                 LoginEventRepository loginEventRepository,
+                                 JobCoordinator jobCoordinator,
+                                 BatchedLookupService batchedLookupService) {
+        this.statsRepository = statsRepository;
+        this.loginEventRepository = loginEventRepository;
+        this.jobCoordinator = jobCoordinator;
+        this.batchedLookupService = batchedLookupService;
+    }
+
+    public record LoginTotals(long loginCount, LocalDateTime firstLoginAt, LocalDateTime lastLoginAt, String lastIp) {
+
+        /** Combines the summary row with the logins after the watermark. */
+        LoginTotals plus(LoginTotals recent) {
+            boolean recentIsLater = lastLoginAt == null || recent.lastLoginAt().isAfter(lastLoginAt);
+            return new LoginTotals(
+                loginCount + recent.loginCount(),
+                firstLoginAt != null && firstLoginAt.isBefore(recent.firstLoginAt()) ? firstLoginAt : recent.firstLoginAt(),
+                recentIsLater ? recent.lastLoginAt() : lastLoginAt,
+                recentIsLater ? recent.lastIp() : lastIp);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${analytics.login-stats.initial-delay-ms:80000}",
+               fixedDelayString = "${analytics.login-stats.refresh-interval-ms:120000}")
+    @Transactional
+    public void refreshIncremental() {
+        if (!enabled || !jobCoordinator.tryLock(Job.USER_LOGIN_STATS)) {
+            return;
+        }
+        LocalDateTime to = watermarkNow();
+        Optional<LocalDateTime> watermark = readWatermark();
+        if (watermark.isEmpty()) {
+            rebuildAllLocked(to);
+        } else if (watermark.get().isBefore(to)) {
+            statsRepository.addRange(watermark.get(), to);
+            writeWatermark(to);
+        }
+    }
+
+    @Scheduled(cron = "${analytics.login-stats.rebuild-cron:0 50 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        if (!enabled || !jobCoordinator.tryLock(Job.USER_LOGIN_STATS)) {
+            return;
+        }
+        rebuildAllLocked(watermarkNow());
+    }
+
+    /**
+     * The watermark the table is complete up to, or empty before the first build
+     * (or when disabled), in which case callers must aggregate login_events.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> completeThrough() {
+        return enabled ? readWatermark() : Optional.empty();
+    }
+
+    /** Login totals per user; users who never logged in are absent from the map. */
+    @Transactional(readOnly = true)
+    public Map<UUID, LoginTotals> getLoginTotals(Collection<UUID> userIds) {
+        List<LoginEventRepository.UserLoginStat> rows = completeThrough().isPresent()
+            ? batchedLookupService.lookup(userIds, chunk -> statsRepository.findLoginStatsWithRecent(chunk, WATERMARK_KEY))
+            : batchedLookupService.lookup(userIds, loginEventRepository::findLoginStatsForUsers);
+        Map<UUID, LoginTotals> totals = new HashMap<>();
+        for (LoginEventRepository.UserLoginStat row : rows) {
+            totals.merge(row.getUserId(), toTotals(row), LoginTotals::plus);
+        }
+        return totals;
+    }
+
+    private void rebuildAllLocked(LocalDateTime to) {
+        long started = System.currentTimeMillis();
+        statsRepository.deleteAllRows();
+        statsRepository.addRange(BEGINNING, to);
+        writeWatermark(to);
+        logger.info("User login stats fully rebuilt through {} in {} ms", to, System.currentTimeMillis() - started);
+    }
+
+    // Microsecond precision, like the timestamp columns, so the watermark compares the
+    // same here and when the lookups read it back from app_settings in SQL.
+    private LocalDateTime watermarkNow() {
+        return LocalDateTime.now().minus(lag).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static LoginTotals toTotals(LoginEventRepository.UserLoginStat row) {
+        return new LoginTotals(row.getLoginCount(),
+            row.getFirstLoginAt() != null ? row.getFirstLoginAt().toLocalDateTime() : null,
+            row.getLastLoginAt() != null ? row.getLastLoginAt().toLocalDateTime() : null,
+            row.getLastIp());
+    }
+
+    private Optional<LocalDateTime> readWatermark() {
+        return jobCoordinator.readWatermark(WATERMARK_KEY, LocalDateTime::parse);
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        jobCoordinator.writeWatermark(WATERMARK_KEY, watermark);
+    }
+}
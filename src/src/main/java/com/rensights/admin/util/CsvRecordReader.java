@@ -0,0 +1,109 @@
+package com.rensights.admin.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC-4180 reader: one record per {@link #next()}, quoted fields may hold
+ * commas, doubled quotes and line breaks. Lines are counted so callers can report
+ * errors against the line a record starts on. Malformed quoting, or a record longer
+ * than the configured number of characters, is an IllegalArgumentException.
+ */
+public class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+    private int recordChars;
+
+    public CsvRecordReader(Reader reader) {
+        this(reader, Integer.MAX_VALUE);
+    }
+
+    public CsvRecordReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /** The next record's fields, or null at end of input. */
+    public List<String> next() throws IOException {
+        recordChars = 0;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int after = read();
+                    if (after == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = after;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int after = read();
+                    if (after != '\n') {
+                        pending = after;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+                fieldStart = false;
+            }
+            c = read();
+        }
+    }
+
+    /** Line the most recently returned record started on (1-based). */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (c != -1 && ++recordChars > maxRecordChars) {
+            throw new IllegalArgumentException("Record starting on line " + recordLine
+                + " is longer than " + maxRecordChars + " characters");
+        }
+        return c;
+    }
+}
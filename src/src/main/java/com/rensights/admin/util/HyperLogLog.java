@@ -0,0 +1,128 @@
+package com.rensights.admin.util;
+
+import java.util.UUID;
+
+/**
+ * Dense HyperLogLog distinct-count sketch over user ids.
+ *
+ * 2^14 one-byte registers (16 KB serialized), standard error about 0.8%. Two
+ * sketches built from any sets of ids merge into the sketch of their union, which
+ * is what lets active_user_sketches answer "distinct users in this window" by
+ * merging stored per-day sketches instead of re-reading login_events. Small
+ * cardinalities come out effectively exact.
+ */
+public final class HyperLogLog {
+
+    private static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int MAX_RANK = 64 - PRECISION + 1;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTERS + 1 || bytes[0] != PRECISION) {
+            throw new IllegalArgumentException("Not a precision-" + PRECISION + " HyperLogLog sketch");
+        }
+        byte[] registers = new byte[REGISTERS];
+        System.arraycopy(bytes, 1, registers, 0, REGISTERS);
+        return new HyperLogLog(registers);
+    }
+
+    /** One header byte (the precision) followed by the registers. */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[REGISTERS + 1];
+        bytes[0] = PRECISION;
+        System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+        return bytes;
+    }
+
+    public void add(UUID id) {
+        long hash = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Leading zeros of the remaining 50 bits, +1; the sentinel bit caps it at MAX_RANK.
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Ertl's improved estimator ("New cardinality estimation algorithms for
+     * HyperLogLog sketches", 2017): unbiased across the whole range without the
+     * linear-counting switchover or empirical bias tables.
+     */
+    public long estimate() {
+        int[] histogram = new int[MAX_RANK + 1];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        if (histogram[0] == REGISTERS) {
+            return 0;
+        }
+        double z = REGISTERS * tau(1.0 - (double) histogram[MAX_RANK] / REGISTERS);
+        for (int k = MAX_RANK - 1; k >= 1; k--) {
+            z = 0.5 * (z + histogram[k]);
+        }
+        z += REGISTERS * sigma((double) histogram[0] / REGISTERS);
+        return Math.round(REGISTERS * (REGISTERS / (2 * Math.log(2) * z)));
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1.0;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1.0 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1.0 - x) * (1.0 - x) * y;
+        } while (z != previous);
+        return z / 3.0;
+    }
+
+    /** MurmurHash3 fmix64 finalizer; spreads UUID bits (v4 ids have fixed version bits). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53a3ed3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
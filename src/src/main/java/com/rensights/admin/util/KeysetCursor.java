@@ -0,0 +1,110 @@
+package com.rensights.admin.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.mapping.PropertyPath;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Opaque cursor for keyset pagination: the (sort key..., id) values of the last row
+ * on a page, as base64url JSON. Values are written as strings and converted back
+ * using the entity's property types, so the client never needs to know what is in it.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> KEYS_TYPE = new TypeReference<>() {};
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(KeysetScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((property, value) -> keys.put(property, asString(value)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(MAPPER.writeValueAsBytes(keys));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode}. A null or blank cursor means
+     * "first page".
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or refers to a
+     *         property the entity does not have
+     */
+    public static KeysetScrollPosition decode(String cursor, Class<?> entityType) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, String> raw;
+        try {
+            raw = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            Class<?> type;
+            try {
+                type = PropertyPath.from(entry.getKey(), entityType).getLeafType();
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keys.put(entry.getKey(), parse(entry.getValue(), type));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String asString(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (type == String.class) {
+                return value;
+            } else if (type == UUID.class) {
+                return UUID.fromString(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            } else if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            } else if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            } else if (type == Boolean.class || type == boolean.class) {
+                return Boolean.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, value);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + type.getSimpleName());
+    }
+}
@@ -0,0 +1,60 @@
+package com.rensights.admin.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sort keys each admin list endpoint accepts, and the (column, id) index on the
+ * entity that serves each one. Anything else would sort the whole table, so an
+ * unknown key falls back to the list's default sort instead of reaching Sort.by().
+ *
+ * Every resolved sort ends with id as a tiebreaker in the same direction, which is
+ * what the composite indexes are built for and what keyset cursors need.
+ */
+public final class SortCatalogue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SortCatalogue.class);
+
+    public static final SortCatalogue USERS = new SortCatalogue("users", "createdAt")
+        .allow("createdAt", "idx_users_created_at_id")
+        .allow("updatedAt", "idx_users_updated_at_id")
+        .allow("email", "unique(email)");
+
+    public static final SortCatalogue SUBSCRIPTIONS = new SortCatalogue("subscriptions", "createdAt")
+        .allow("createdAt", "idx_subscriptions_created_at_id")
+        .allow("startDate", "idx_subscriptions_start_date_id")
+        .allow("updatedAt", "idx_subscriptions_updated_at_id");
+
+    public static final SortCatalogue ANALYSIS_REQUESTS = new SortCatalogue("analysis_requests", "createdAt")
+        .allow("createdAt", "idx_analysis_requests_created_at_id")
+        .allow("updatedAt", "idx_analysis_requests_updated_at_id");
+
+    private final String table;
+    private final String defaultKey;
+    private final Map<String, String> indexByKey = new LinkedHashMap<>();
+
+    private SortCatalogue(String table, String defaultKey) {
+        this.table = table;
+        this.defaultKey = defaultKey;
+    }
+
+    private SortCatalogue allow(String key, String indexName) {
+        indexByKey.put(key, indexName);
+        return this;
+    }
+
+    public Sort resolve(String sortBy, String sortDir) {
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String key = sortBy;
+        if (key == null || !indexByKey.containsKey(key)) {
+            logger.warn("Unsupported sort '{}' on {}, using '{}' (allowed: {})",
+                sortBy, table, defaultKey, indexByKey.keySet());
+            key = defaultKey;
+        }
+        return Sort.by(direction, key).and(Sort.by(direction, "id"));
+    }
+}
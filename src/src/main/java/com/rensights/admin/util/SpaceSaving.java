@@ -0,0 +1,125 @@
+package com.rensights.admin.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Weighted Space-Saving heavy-hitters summary (Metwally et al.) with the
+ * mergeable-summaries combine step (Agarwal et al.).
+ *
+ * Holds at most {@code capacity} items. Every reported count is an overestimate
+ * by at most that item's {@code error}, and any item whose true count exceeds
+ * {@link #minCount()} is guaranteed to be present. Used for page-view top lists
+ * over windows too long to re-sum from the per-day counters.
+ */
+public final class SpaceSaving {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int capacity;
+    private final Map<String, Entry> counters = new HashMap<>();
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(String item, long weight) {
+        Entry current = counters.get(item);
+        if (current != null) {
+            counters.put(item, new Entry(item, current.count() + weight, current.error()));
+        } else if (counters.size() < capacity) {
+            counters.put(item, new Entry(item, weight, 0));
+        } else {
+            // Replace the smallest counter; the newcomer inherits its count as error.
+            Entry smallest = counters.values().stream().min(Comparator.comparingLong(Entry::count)).orElseThrow();
+            counters.remove(smallest.item());
+            counters.put(item, new Entry(item, smallest.count() + weight, smallest.count()));
+        }
+    }
+
+    /**
+     * Combines {@code other} into this summary. An item missing from one side may
+     * still have been counted there, up to that side's minCount, so it is charged
+     * that much (as count and as error) before the union is cut back to capacity.
+     */
+    public SpaceSaving merge(SpaceSaving other) {
+        long ownMin = minCount();
+        long otherMin = other.minCount();
+        Set<String> items = new HashSet<>(counters.keySet());
+        items.addAll(other.counters.keySet());
+
+        List<Entry> merged = new ArrayList<>(items.size());
+        for (String item : items) {
+            Entry own = counters.get(item);
+            Entry theirs = other.counters.get(item);
+            merged.add(new Entry(item,
+                (own != null ? own.count() : ownMin) + (theirs != null ? theirs.count() : otherMin),
+                (own != null ? own.error() : ownMin) + (theirs != null ? theirs.error() : otherMin)));
+        }
+        merged.sort(Comparator.comparingLong(Entry::count).reversed());
+        counters.clear();
+        for (Entry entry : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counters.put(entry.item(), entry);
+        }
+        return this;
+    }
+
+    /** Upper bound on the count of any item not in the summary; 0 until it is full. */
+    public long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(Entry::count).min().orElse(0);
+    }
+
+    /** The {@code n} largest counters, largest first. */
+    public List<Entry> top(int n) {
+        return counters.values().stream()
+            .sorted(Comparator.comparingLong(Entry::count).reversed())
+            .limit(n)
+            .collect(Collectors.toList());
+    }
+
+    public String toJson() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("capacity", capacity);
+        snapshot.put("entries", counters.values());
+        try {
+            return MAPPER.writeValueAsString(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SpaceSaving fromJson(String json) {
+        try {
+            JsonNode root = MAPPER.readTree(json);
+            SpaceSaving summary = new SpaceSaving(root.get("capacity").asInt());
+            for (JsonNode node : root.get("entries")) {
+                Entry entry = new Entry(node.get("item").asText(), node.get("count").asLong(), node.get("error").asLong());
+                summary.counters.put(entry.item(), entry);
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record Entry(String item, long count, long error) {
+    }
+}
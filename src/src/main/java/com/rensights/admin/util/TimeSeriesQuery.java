@@ -0,0 +1,54 @@
+package com.rensights.admin.util;
+
+/**
+ * What a trend series aggregates: the table, the timestamp expression rows are
+ * bucketed on, the aggregate per bucket and an optional fixed filter. Rendered
+ * into SQL by TimeSeriesService, so every part must be a constant from code -
+ * never request input.
+ */
+public final class TimeSeriesQuery {
+
+    private final String table;
+    private final String timeExpression;
+    private final String aggregate;
+    private final String filter;
+
+    private TimeSeriesQuery(String table, String timeExpression, String aggregate, String filter) {
+        this.table = table;
+        this.timeExpression = timeExpression;
+        this.aggregate = aggregate;
+        this.filter = filter;
+    }
+
+    public static TimeSeriesQuery count(String table, String timeExpression) {
+        return new TimeSeriesQuery(table, timeExpression, "COUNT(*)", null);
+    }
+
+    public static TimeSeriesQuery countDistinct(String table, String timeExpression, String column) {
+        return new TimeSeriesQuery(table, timeExpression, "COUNT(DISTINCT " + column + ")", null);
+    }
+
+    public static TimeSeriesQuery sum(String table, String timeExpression, String column) {
+        return new TimeSeriesQuery(table, timeExpression, "SUM(" + column + ")", null);
+    }
+
+    public TimeSeriesQuery where(String condition) {
+        return new TimeSeriesQuery(table, timeExpression, aggregate, condition);
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public String timeExpression() {
+        return timeExpression;
+    }
+
+    public String aggregate() {
+        return aggregate;
+    }
+
+    public String filter() {
+        return filter;
+    }
+}
@@ -0,0 +1,93 @@
+-- One-off conversion of login_events and activity_events to monthly RANGE partitions.
+--
+-- Not run automatically. Both tables are written by app-backend, so run this in a
+-- maintenance window with app-backend's event writers stopped, then set
+-- ANALYTICS_PARTITIONING_ENABLED=true so EventPartitionMaintenanceService keeps
+-- creating next months' partitions (see analytics.partitioning in application.yml).
+--
+-- Partition names follow <table>_pYYYY_MM; the maintenance job relies on that.
+-- The primary key becomes (id, <time column>) because PostgreSQL requires the
+-- partition key in every unique constraint. The _default partition only catches
+-- rows outside the created ranges and should stay empty.
+--
+-- The original tables are kept as *_legacy; drop them once the copy is verified.
+-- Renaming a table keeps its index names, and hbm2ddl has already created the
+-- idx_* indexes (and the *_pkey) on any database the service has run against, so
+-- those are renamed to *_legacy too before the new ones are built under the
+-- original names.
+--
+-- The script ends by re-analysing both tables and must not be cut short there:
+-- the copied rows have no statistics yet, and autovacuum never analyses a
+-- partitioned parent, so without ANALYZE the planner works from defaults.
+
+BEGIN;
+
+-- login_events --------------------------------------------------------------
+
+ALTER TABLE login_events RENAME TO login_events_legacy;
+ALTER INDEX IF EXISTS login_events_pkey RENAME TO login_events_legacy_pkey;
+ALTER INDEX IF EXISTS idx_login_events_user_logged_in_id RENAME TO idx_login_events_user_logged_in_id_legacy;
+ALTER INDEX IF EXISTS idx_login_events_logged_in_user RENAME TO idx_login_events_logged_in_user_legacy;
+
+CREATE TABLE login_events (LIKE login_events_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (logged_in_at);
+ALTER TABLE login_events ADD PRIMARY KEY (id, logged_in_at);
+
+DO $$
+DECLARE
+    month_start DATE := COALESCE(
+        (SELECT DATE_TRUNC('month', MIN(logged_in_at))::DATE FROM login_events_legacy),
+        DATE_TRUNC('month', CURRENT_DATE)::DATE);
+BEGIN
+    WHILE month_start <= (DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '2 months')::DATE LOOP
+        EXECUTE FORMAT('CREATE TABLE %I PARTITION OF login_events FOR VALUES FROM (%L) TO (%L)',
+            'login_events_p' || TO_CHAR(month_start, 'YYYY_MM'),
+            month_start, (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+CREATE TABLE login_events_default PARTITION OF login_events DEFAULT;
+
+INSERT INTO login_events SELECT * FROM login_events_legacy;
+
+CREATE INDEX idx_login_events_user_logged_in_id ON login_events (user_id, logged_in_at, id);
+CREATE INDEX idx_login_events_logged_in_user ON login_events (logged_in_at, user_id);
+
+-- activity_events -----------------------------------------------------------
+
+ALTER TABLE activity_events RENAME TO activity_events_legacy;
+ALTER INDEX IF EXISTS activity_events_pkey RENAME TO activity_events_legacy_pkey;
+ALTER INDEX IF EXISTS idx_activity_events_user_occurred_id RENAME TO idx_activity_events_user_occurred_id_legacy;
+ALTER INDEX IF EXISTS idx_activity_events_occurred_type RENAME TO idx_activity_events_occurred_type_legacy;
+ALTER INDEX IF EXISTS idx_activity_events_type_occurred_path RENAME TO idx_activity_events_type_occurred_path_legacy;
+
+CREATE TABLE activity_events (LIKE activity_events_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (occurred_at);
+ALTER TABLE activity_events ADD PRIMARY KEY (id, occurred_at);
+
+DO $$
+DECLARE
+    month_start DATE := COALESCE(
+        (SELECT DATE_TRUNC('month', MIN(occurred_at))::DATE FROM activity_events_legacy),
+        DATE_TRUNC('month', CURRENT_DATE)::DATE);
+BEGIN
+    WHILE month_start <= (DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '2 months')::DATE LOOP
+        EXECUTE FORMAT('CREATE TABLE %I PARTITION OF activity_events FOR VALUES FROM (%L) TO (%L)',
+            'activity_events_p' || TO_CHAR(month_start, 'YYYY_MM'),
+            month_start, (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+CREATE TABLE activity_events_default PARTITION OF activity_events DEFAULT;
+
+INSERT INTO activity_events SELECT * FROM activity_events_legacy;
+
+CREATE INDEX idx_activity_events_user_occurred_id ON activity_events (user_id, occurred_at, id);
+CREATE INDEX idx_activity_events_occurred_type ON activity_events (occurred_at, event_type);
+CREATE INDEX idx_activity_events_type_occurred_path ON activity_events (event_type, occurred_at, page_path);
+
+COMMIT;
+
+-- Required: fresh statistics for the partitions and the partitioned parents.
+ANALYZE login_events;
+ANALYZE activity_events;
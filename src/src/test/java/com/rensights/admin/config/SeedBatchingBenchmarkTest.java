@@ -0,0 +1,188 @@
+package com.rensights.admin.config;
+
+import com.rensights.admin.model.Deal;
+import com.rensights.admin.model.ReportSection;
+import com.rensights.admin.model.Translation;
+import com.rensights.admin.repository.DealRepository;
+import com.rensights.admin.repository.ReportSectionRepository;
+import com.rensights.admin.repository.TranslationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Times the seed saveAll paths (translations, report sections, test deals) through
+ * AdminDataSourceConfig with persistence.batching off and on and logs both medians.
+ * Wall-clock times are not asserted on; the test only checks that every round really
+ * wrote its rows.
+ *
+ * Needs a scratch PostgreSQL database, since hbm2ddl "update" creates the admin tables:
+ *
+ *   SEED_BENCHMARK_DB_URL=jdbc:postgresql://localhost:5432/seed_benchmark \
+ *   SEED_BENCHMARK_DB_USER=admin SEED_BENCHMARK_DB_PASSWORD=password \
+ *   mvn test -Dtest=SeedBatchingBenchmarkTest
+ */
+@EnabledIfEnvironmentVariable(named = "SEED_BENCHMARK_DB_URL", matches = ".+")
+class SeedBatchingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeedBatchingBenchmarkTest.class);
+
+    private static final int ROWS_PER_ENTITY = 2000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void logSeedSaveAllTimesWithAndWithoutBatching() {
+        long unbatched = medianMillis(false);
+        long batched = medianMillis(true);
+
+        logger.info("Seed saveAll, {} rows x 3 entities, median of {} rounds: batching off {} ms, on {} ms ({}x)",
+            ROWS_PER_ENTITY, MEASURED_ROUNDS, unbatched, batched,
+            String.format("%.1f", (double) unbatched / Math.max(1, batched)));
+    }
+
+    private long medianMillis(boolean batching) {
+        AdminDataSourceConfig config = new AdminDataSourceConfig();
+        ReflectionTestUtils.setField(config, "batchingEnabled", batching);
+        ReflectionTestUtils.setField(config, "batchSize", 50);
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(System.getenv("SEED_BENCHMARK_DB_URL"));
+        properties.setUsername(System.getenv("SEED_BENCHMARK_DB_USER"));
+        properties.setPassword(System.getenv("SEED_BENCHMARK_DB_PASSWORD"));
+
+        HikariDataSource dataSource = (HikariDataSource) config.adminDataSource(properties);
+        EntityManagerFactoryBuilder builder =
+            new EntityManagerFactoryBuilder(new HibernateJpaVendorAdapter(), ds -> Map.of(), null);
+        LocalContainerEntityManagerFactoryBean factoryBean = config.adminEntityManagerFactory(builder, dataSource);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+            TranslationRepository translationRepository = repositories.getRepository(TranslationRepository.class);
+            ReportSectionRepository reportSectionRepository = repositories.getRepository(ReportSectionRepository.class);
+            DealRepository dealRepository = repositories.getRepository(DealRepository.class);
+            TransactionTemplate transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+
+            long[] timings = new long[MEASURED_ROUNDS];
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                String runId = UUID.randomUUID().toString().substring(0, 8);
+                List<Translation> translations = translations(runId);
+                List<ReportSection> sections = reportSections(runId);
+                List<Deal> deals = deals(runId);
+
+                long rowsBefore = countRows(transaction, translationRepository, reportSectionRepository, dealRepository);
+                long started = System.nanoTime();
+                transaction.executeWithoutResult(status -> {
+                    translationRepository.saveAll(translations);
+                    reportSectionRepository.saveAll(sections);
+                    dealRepository.saveAll(deals);
+                });
+                long elapsed = (System.nanoTime() - started) / 1_000_000;
+                if (round >= WARMUP_ROUNDS) {
+                    timings[round - WARMUP_ROUNDS] = elapsed;
+                }
+
+                assertEquals(rowsBefore + 3L * ROWS_PER_ENTITY,
+                    countRows(transaction, translationRepository, reportSectionRepository, dealRepository));
+                transaction.executeWithoutResult(status -> {
+                    translationRepository.deleteAllInBatch(translations);
+                    reportSectionRepository.deleteAllInBatch(sections);
+                    dealRepository.deleteAllInBatch(deals);
+                });
+            }
+            Arrays.sort(timings);
+            return timings[MEASURED_ROUNDS / 2];
+        } finally {
+            factoryBean.destroy();
+            dataSource.close();
+        }
+    }
+
+    private static long countRows(TransactionTemplate transaction, TranslationRepository translationRepository,
+                                  ReportSectionRepository reportSectionRepository, DealRepository dealRepository) {
+        return transaction.execute(status ->
+            translationRepository.count() + reportSectionRepository.count() + dealRepository.count());
+    }
+
+    private static List<Translation> translations(String runId) {
+        List<Translation> rows = new ArrayList<>(ROWS_PER_ENTITY);
+        for (int i = 0; i < ROWS_PER_ENTITY; i++) {
+            rows.add(Translation.builder()
+                .languageCode("xx")
+                .namespace("benchmark")
+                .translationKey("seed." + runId + "." + i)
+                .translationValue("Seed value " + i)
+                .build());
+        }
+        return rows;
+    }
+
+    private static List<ReportSection> reportSections(String runId) {
+        List<ReportSection> rows = new ArrayList<>(ROWS_PER_ENTITY);
+        for (int i = 0; i < ROWS_PER_ENTITY; i++) {
+            rows.add(ReportSection.builder()
+                .sectionKey("benchmark-" + runId + "-" + i)
+                .title("Benchmark Section " + i)
+                .navTitle("Section " + i)
+                .description("Seeded by SeedBatchingBenchmarkTest")
+                .accessTier(ReportSection.AccessTier.FREE)
+                .displayOrder(i)
+                .languageCode("xx")
+                .isActive(true)
+                .build());
+        }
+        return rows;
+    }
+
+    private static List<Deal> deals(String runId) {
+        List<Deal> rows = new ArrayList<>(ROWS_PER_ENTITY);
+        for (int i = 0; i < ROWS_PER_ENTITY; i++) {
+            rows.add(Deal.builder()
+                .name("Benchmark Deal " + runId + " " + i)
+                .location("Benchmark Tower")
+                .city("Dubai")
+                .area("Downtown")
+                .bedrooms("2")
+                .bedroomCount("2")
+                .size("1200 sqft")
+                .listedPrice("AED 2,000,000")
+                .priceValue(new BigDecimal("2000000"))
+                .estimateMin(new BigDecimal("1900000"))
+                .estimateMax(new BigDecimal("2100000"))
+                .estimateRange("AED 1.9M - 2.1M")
+                .discount("5%")
+                .rentalYield("6.0%")
+                .buildingStatus(Deal.BuildingStatus.READY)
+                .status(Deal.DealStatus.PENDING)
+                .active(false)
+                .batchDate(LocalDateTime.now())
+                .build());
+        }
+        return rows;
+    }
+}
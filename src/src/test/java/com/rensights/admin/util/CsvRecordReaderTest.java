@@ -0,0 +1,118 @@
+package com.rensights.admin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        CsvRecordReader csv = reader("a,b,c\n1,2,3\n");
+
+        assertEquals(List.of("a", "b", "c"), csv.next());
+        assertEquals(1, csv.recordLine());
+        assertEquals(List.of("1", "2", "3"), csv.next());
+        assertEquals(2, csv.recordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void lastRecordWithoutTrailingNewline() throws IOException {
+        CsvRecordReader csv = reader("a,b\n1,2");
+
+        csv.next();
+        assertEquals(List.of("1", "2"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertNull(reader("").next());
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvRecordReader csv = reader(",x,,\n\n");
+
+        assertEquals(List.of("", "x", "", ""), csv.next());
+        assertEquals(List.of(""), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void quotedFieldsHoldCommasAndDoubledQuotes() throws IOException {
+        CsvRecordReader csv = reader("\"Marina, Tower\",\"say \"\"hi\"\"\",\"\"\n");
+
+        assertEquals(List.of("Marina, Tower", "say \"hi\"", ""), csv.next());
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws IOException {
+        CsvRecordReader csv = reader("12\" screen,ok\n");
+
+        assertEquals(List.of("12\" screen", "ok"), csv.next());
+    }
+
+    @Test
+    void handlesCrlfAndBareCr() throws IOException {
+        CsvRecordReader csv = reader("a,b\r\n1,2\r3,4\r\n");
+
+        assertEquals(List.of("a", "b"), csv.next());
+        assertEquals(1, csv.recordLine());
+        assertEquals(List.of("1", "2"), csv.next());
+        assertEquals(2, csv.recordLine());
+        assertEquals(List.of("3", "4"), csv.next());
+        assertEquals(3, csv.recordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void embeddedNewlinesStayInTheFieldAndAdvanceLineNumbers() throws IOException {
+        CsvRecordReader csv = reader("id,notes\n1,\"first\nsecond\r\nthird\"\n2,plain\n");
+
+        csv.next();
+        assertEquals(List.of("1", "first\nsecond\r\nthird"), csv.next());
+        assertEquals(2, csv.recordLine());
+        assertEquals(List.of("2", "plain"), csv.next());
+        assertEquals(5, csv.recordLine());
+    }
+
+    @Test
+    void unterminatedQuoteIsRejectedWithItsStartLine() throws IOException {
+        CsvRecordReader csv = reader("a\n\"open\nstill open\n");
+
+        csv.next();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, csv::next);
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    void overlongRecordIsRejected() throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(new StringReader("a,b\n" + "x".repeat(20) + ",y\n"), 10);
+
+        assertEquals(List.of("a", "b"), csv.next());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, csv::next);
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+    }
+
+    @Test
+    void recordAtTheLengthLimitIsAccepted() throws IOException {
+        // Nine characters of data plus the newline
+        CsvRecordReader csv = new CsvRecordReader(new StringReader("abcd,efgh\n"), 10);
+
+        assertEquals(List.of("abcd", "efgh"), csv.next());
+        assertNull(csv.next());
+    }
+
+    private static CsvRecordReader reader(String text) {
+        return new CsvRecordReader(new StringReader(text));
+    }
+}
@@ -0,0 +1,108 @@
+package com.rensights.admin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    // 2^14 registers: standard error 1.04 / sqrt(16384) ~ 0.81%
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(1 << 14);
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        Random random = new Random(42);
+        for (int n : new int[] {1, 2, 10, 100, 1_000}) {
+            HyperLogLog sketch = sketchOf(ids(random, n));
+            long estimate = sketch.estimate();
+            assertTrue(Math.abs(estimate - n) <= Math.max(1, n * 0.01),
+                "n=" + n + " estimated as " + estimate);
+        }
+    }
+
+    @Test
+    void largeCardinalitiesStayWithinThreeStandardErrors() {
+        Random random = new Random(7);
+        for (int n : new int[] {10_000, 100_000, 1_000_000}) {
+            long estimate = sketchOf(ids(random, n)).estimate();
+            double relativeError = Math.abs(estimate - n) / (double) n;
+            assertTrue(relativeError <= 3 * STANDARD_ERROR,
+                "n=" + n + " estimated as " + estimate + " (error " + relativeError + ")");
+        }
+    }
+
+    @Test
+    void addingTheSameIdTwiceDoesNotChangeTheSketch() {
+        List<UUID> ids = ids(new Random(3), 5_000);
+        HyperLogLog once = sketchOf(ids);
+        HyperLogLog twice = sketchOf(ids);
+        ids.forEach(twice::add);
+        assertArrayEquals(once.toBytes(), twice.toBytes());
+    }
+
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        Random random = new Random(11);
+        List<UUID> shared = ids(random, 20_000);
+        List<UUID> onlyLeft = ids(random, 30_000);
+        List<UUID> onlyRight = ids(random, 50_000);
+
+        List<UUID> left = new ArrayList<>(shared);
+        left.addAll(onlyLeft);
+        List<UUID> right = new ArrayList<>(shared);
+        right.addAll(onlyRight);
+        List<UUID> union = new ArrayList<>(left);
+        union.addAll(onlyRight);
+
+        HyperLogLog merged = sketchOf(left).merge(sketchOf(right));
+        HyperLogLog ofUnion = sketchOf(union);
+
+        assertArrayEquals(ofUnion.toBytes(), merged.toBytes());
+        assertEquals(ofUnion.estimate(), merged.estimate());
+        assertArrayEquals(merged.toBytes(), sketchOf(right).merge(sketchOf(left)).toBytes());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(ids(new Random(5), 12_345));
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    void fromBytesRejectsOtherPrecisions() {
+        byte[] bytes = new HyperLogLog().toBytes();
+        bytes[0] = 12;
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(bytes));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(null));
+    }
+
+    private static List<UUID> ids(Random random, int n) {
+        List<UUID> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return ids;
+    }
+
+    private static HyperLogLog sketchOf(List<UUID> ids) {
+        HyperLogLog sketch = new HyperLogLog();
+        ids.forEach(sketch::add);
+        return sketch;
+    }
+}
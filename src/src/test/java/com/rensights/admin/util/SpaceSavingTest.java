@@ -0,0 +1,136 @@
+package com.rensights.admin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void countsAreExactWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        summary.offer("/a", 3);
+        summary.offer("/b", 5);
+        summary.offer("/a", 4);
+
+        assertEquals(List.of(new SpaceSaving.Entry("/a", 7, 0), new SpaceSaving.Entry("/b", 5, 0)), summary.top(10));
+        assertEquals(0, summary.minCount());
+    }
+
+    @Test
+    void boundsHoldForASkewedStream() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = summarize(zipfStream(new Random(1), 1_000, 100_000, "/page-"), truth);
+        assertGuarantees(summary, truth);
+    }
+
+    @Test
+    void mergeKeepsBoundsAndTopItemsOfTheCombinedStream() {
+        Random random = new Random(2);
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving left = summarize(zipfStream(random, 1_000, 80_000, "/page-"), truth);
+        // Partly different hot set on the right, so some heavy items are missing from one side
+        List<String> rightStream = zipfStream(random, 1_000, 80_000, "/page-");
+        rightStream.addAll(zipfStream(random, 200, 40_000, "/other-"));
+        Collections.shuffle(rightStream, random);
+        SpaceSaving right = summarize(rightStream, truth);
+
+        SpaceSaving merged = left.merge(right);
+
+        assertTrue(merged.top(Integer.MAX_VALUE).size() <= CAPACITY);
+        assertGuarantees(merged, truth);
+        // Near-equal counts may swap places, but the top-5 set must match the combined stream's
+        Set<String> expectedTop = truth.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(5)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+        assertEquals(expectedTop, merged.top(5).stream().map(SpaceSaving.Entry::item).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void mergingWithAnEmptySummaryChangesNothing() {
+        Map<String, Long> truth = new HashMap<>();
+        SpaceSaving summary = summarize(zipfStream(new Random(3), 500, 20_000, "/page-"), truth);
+        List<SpaceSaving.Entry> before = summary.top(CAPACITY);
+
+        assertEquals(before, summary.merge(new SpaceSaving(CAPACITY)).top(CAPACITY));
+    }
+
+    @Test
+    void jsonRoundTrip() {
+        SpaceSaving summary = summarize(zipfStream(new Random(4), 500, 20_000, "/page-"), new HashMap<>());
+        SpaceSaving restored = SpaceSaving.fromJson(summary.toJson());
+
+        assertEquals(summary.top(CAPACITY), restored.top(CAPACITY));
+        assertEquals(summary.minCount(), restored.minCount());
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+
+    /**
+     * Every reported count overestimates by at most its error, and every item whose
+     * true count exceeds minCount is present.
+     */
+    private static void assertGuarantees(SpaceSaving summary, Map<String, Long> truth) {
+        List<SpaceSaving.Entry> entries = summary.top(Integer.MAX_VALUE);
+        Map<String, SpaceSaving.Entry> byItem = new HashMap<>();
+        for (SpaceSaving.Entry entry : entries) {
+            long actual = truth.getOrDefault(entry.item(), 0L);
+            assertTrue(entry.count() >= actual, entry + " undercounts " + actual);
+            assertTrue(entry.count() - entry.error() <= actual, entry + " overcounts " + actual + " beyond its error");
+            byItem.put(entry.item(), entry);
+        }
+        long minCount = summary.minCount();
+        truth.forEach((item, count) -> {
+            if (count > minCount) {
+                assertTrue(byItem.containsKey(item), item + " (" + count + ") missing with minCount " + minCount);
+            }
+        });
+    }
+
+    private static SpaceSaving summarize(List<String> stream, Map<String, Long> truth) {
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        for (String item : stream) {
+            summary.offer(item, 1);
+            truth.merge(item, 1L, Long::sum);
+        }
+        return summary;
+    }
+
+    /** {@code events} draws over {@code items} items with Zipf(1) weights, in random order. */
+    private static List<String> zipfStream(Random random, int items, int events, String prefix) {
+        double[] cumulative = new double[items];
+        double total = 0;
+        for (int i = 0; i < items; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        List<String> stream = new ArrayList<>(events);
+        for (int e = 0; e < events; e++) {
+            double u = random.nextDouble() * total;
+            int index = 0;
+            while (cumulative[index] < u) {
+                index++;
+            }
+            stream.add(prefix + index);
+        }
+        return stream;
+    }
+}